@@ -0,0 +1,36 @@
+package extdoc.bench;
+
+import extdoc.jsdoc.tags.impl.Comment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of one doc comment into description and tags
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommentBenchmark {
+
+    private String[] comments;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        List<String> list = new CorpusGenerator(0).generateComments(100);
+        comments = list.toArray(new String[list.size()]);
+    }
+
+    @Benchmark
+    public Comment createComment() {
+        String content = comments[next];
+        next = (next + 1) % comments.length;
+        return new Comment(content);
+    }
+}
@@ -0,0 +1,246 @@
+package extdoc.bench;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic source files in the style of ExtJS: one class per
+ * file, classes grouped to packages, every class documented with
+ * configs, properties, methods and events. Descriptions contain
+ * {@link} references and code examples. The same seed always gives the
+ * same corpus, so benchmark results can be compared between runs.
+ */
+public class CorpusGenerator {
+
+    private static final String ENCODING = "UTF8";
+
+    private static final String NAMESPACE = "Ext.gen";
+
+    private static final int CLASSES_PER_PACKAGE = 20;
+
+    private static final String[] WORDS = {
+            "component", "element", "container", "layout", "store",
+            "record", "field", "panel", "window", "grid", "column",
+            "render", "update", "config", "value", "event", "listener",
+            "the", "a", "of", "to", "is", "when", "which", "will", "be",
+            "used", "this", "by", "default", "if", "not", "specified"
+    };
+
+    private static final String[] TYPES = {
+            "String", "Number", "Boolean", "Object", "Array", "Function",
+            "Ext.Element", "Mixed", "String/Number"
+    };
+
+    private final long seed;
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static String className(int index) {
+        return NAMESPACE + ".pkg" + (index / CLASSES_PER_PACKAGE)
+                + ".Widget" + index;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String type(Random random) {
+        return TYPES[random.nextInt(TYPES.length)];
+    }
+
+    private static void sentence(StringBuilder sb, Random random,
+                                 int words) {
+        for (int i = 0; i < words; i++) {
+            sb.append(i > 0 ? " " : "").append(word(random));
+        }
+        sb.append(". ");
+    }
+
+    private static void codeExample(StringBuilder sb, String cls) {
+        sb.append(" * <pre><code>\n")
+                .append("var w = new ").append(cls).append("({\n")
+                .append("    renderTo: 'container', // render at once\n")
+                .append("    width: 300,\n")
+                .append("    title: \"Example\"\n")
+                .append("});\n")
+                .append("w.on('update', function(){ return true; });\n")
+                .append("</code></pre>\n");
+    }
+
+    private static void description(StringBuilder sb, Random random,
+                                    String cls, String parent) {
+        sb.append(" * <p>");
+        sentence(sb, random, 8 + random.nextInt(10));
+        if (parent != null) {
+            sb.append("See {@link ").append(parent).append("} and ");
+        }
+        sb.append("{@link ").append(cls).append("#doUpdate doUpdate}. ");
+        sentence(sb, random, 5 + random.nextInt(20));
+        sb.append("</p>\n");
+    }
+
+    /**
+     * @param index number of class
+     * @return source of the file declaring class
+     */
+    public String generateClass(int index) {
+        Random random = new Random(seed + index);
+        String cls = className(index);
+        String parent = index > 0 ? className(random.nextInt(index)) : null;
+        StringBuilder sb = new StringBuilder(8192);
+
+        sb.append("/**\n * @class ").append(cls).append('\n');
+        if (parent != null) {
+            sb.append(" * @extends ").append(parent).append('\n');
+        }
+        description(sb, random, cls, parent);
+        codeExample(sb, cls);
+        sb.append(" * @constructor\n")
+                .append(" * @param {Object} config The config object\n")
+                .append(" * @xtype widget").append(index).append('\n')
+                .append(" */\n")
+                .append(cls).append(" = Ext.extend(")
+                .append(parent != null ? parent : "Ext.util.Observable")
+                .append(", {\n");
+
+        int cfgs = 3 + random.nextInt(8);
+        for (int i = 0; i < cfgs; i++) {
+            sb.append("    /**\n     * @cfg {").append(type(random))
+                    .append("} cfg").append(i).append("\n     * ");
+            sentence(sb, random, 6 + random.nextInt(12));
+            sb.append("Defaults to <tt>").append(i).append("</tt>.\n")
+                    .append("     */\n");
+        }
+        int properties = 1 + random.nextInt(4);
+        for (int i = 0; i < properties; i++) {
+            sb.append("    /**\n     * ");
+            sentence(sb, random, 5 + random.nextInt(10));
+            sb.append("\n     * @type ").append(type(random))
+                    .append("\n     * @property\n     */\n")
+                    .append("    prop").append(i).append(" : null,\n\n");
+        }
+        int methods = 3 + random.nextInt(10);
+        for (int i = 0; i < methods; i++) {
+            String name = i == 0 ? "doUpdate" : "method" + i;
+            sb.append("    /**\n");
+            description(sb, random, cls, parent);
+            int params = random.nextInt(4);
+            for (int p = 0; p < params; p++) {
+                sb.append("     * @param {").append(type(random))
+                        .append("} arg").append(p)
+                        .append(p > 0 ? " (optional) " : " ");
+                sentence(sb, random, 4 + random.nextInt(6));
+                sb.append('\n');
+            }
+            if (random.nextBoolean()) {
+                sb.append("     * @return {").append(type(random))
+                        .append("} ");
+                sentence(sb, random, 3 + random.nextInt(5));
+                sb.append('\n');
+            }
+            sb.append("     */\n    ").append(name).append(" : function(");
+            for (int p = 0; p < params; p++) {
+                sb.append(p > 0 ? ", " : "").append("arg").append(p);
+            }
+            sb.append("){\n        return this.prop0;\n    },\n\n");
+        }
+        int events = random.nextInt(4);
+        for (int i = 0; i < events; i++) {
+            sb.append("    /**\n     * @event event").append(i)
+                    .append("\n     * Fires when ");
+            sentence(sb, random, 4 + random.nextInt(8));
+            sb.append("\n     * @param {").append(cls).append("} this\n")
+                    .append("     */\n");
+        }
+        sb.append("    destroy : Ext.emptyFn\n});\n");
+        return sb.toString();
+    }
+
+    /**
+     * @param classes number of classes
+     * @return content of all doc comments of the corpus, without
+     * comment start and end sequences
+     */
+    public List<String> generateComments(int classes) {
+        List<String> comments = new ArrayList<String>();
+        for (int i = 0; i < classes; i++) {
+            String source = generateClass(i);
+            int start = source.indexOf("/**");
+            while (start != -1) {
+                int end = source.indexOf("*/", start + 3);
+                comments.add(source.substring(start + 3, end));
+                start = source.indexOf("/**", end + 2);
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Writes corpus to folder, classes of every package to its own folder
+     * @param dir target folder
+     * @param classes number of classes
+     * @return written files
+     * @throws IOException if file can not be written
+     */
+    public List<File> generate(File dir, int classes) throws IOException {
+        List<File> files = new ArrayList<File>(classes);
+        for (int i = 0; i < classes; i++) {
+            File pkg = new File(dir, "pkg" + (i / CLASSES_PER_PACKAGE));
+            pkg.mkdirs();
+            File file = new File(pkg, "Widget" + i + ".js");
+            Writer out = new OutputStreamWriter(
+                    new FileOutputStream(file), ENCODING);
+            try {
+                out.write(generateClass(i));
+            } finally {
+                out.close();
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * @return new empty temporary folder
+     * @throws IOException if folder can not be created
+     */
+    public static File createTempDir() throws IOException {
+        File dir = File.createTempFile("extdoc-corpus", "");
+        dir.delete();
+        if (!dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        return dir;
+    }
+
+    /**
+     * Deletes folder with all its content
+     */
+    public static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Usage: CorpusGenerator folder [classes] [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println(
+                    "Usage: CorpusGenerator folder [classes] [seed]");
+            System.exit(1);
+        }
+        int classes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        new CorpusGenerator(seed).generate(new File(args[0]), classes);
+    }
+}
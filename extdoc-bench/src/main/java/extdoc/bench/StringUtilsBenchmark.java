@@ -0,0 +1,63 @@
+package extdoc.bench;
+
+import extdoc.jsdoc.tags.impl.Comment;
+import extdoc.jsdoc.util.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers called for every description and every class name
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringUtilsBenchmark {
+
+    private static final String[] CLASS_NAMES = {
+            "Ext",
+            "Ext.Button",
+            "Ext.util.Observable",
+            "Ext.layout.BorderLayout.Region",
+            "Ext.Updater.BasicRenderer",
+            "Ext.data.JsonReader",
+            "Ext.grid.GridView.SplitDragZone"
+    };
+
+    private String[] descriptions;
+
+    private int nextDescription = 0;
+
+    private int nextClassName = 0;
+
+    @Setup
+    public void setUp() {
+        List<String> list = new ArrayList<String>();
+        for (String content : new CorpusGenerator(0).generateComments(20)) {
+            String description = new Comment(content).getDescription();
+            if (description != null && description.length() > 0) {
+                list.add(description);
+            }
+        }
+        descriptions = list.toArray(new String[list.size()]);
+    }
+
+    @Benchmark
+    public String highlightCode() {
+        String description = descriptions[nextDescription];
+        nextDescription = (nextDescription + 1) % descriptions.length;
+        return StringUtils.highlightCode(description);
+    }
+
+    @Benchmark
+    public String[] separatePackage() {
+        String className = CLASS_NAMES[nextClassName];
+        nextClassName = (nextClassName + 1) % CLASS_NAMES.length;
+        return StringUtils.separatePackage(className);
+    }
+}
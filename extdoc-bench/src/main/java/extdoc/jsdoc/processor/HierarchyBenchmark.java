@@ -0,0 +1,52 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocMethod;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building of class hierarchy. Time should grow linearly with the
+ * number of classes, compare scores of both sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HierarchyBenchmark {
+
+    private static final int METHODS_PER_CLASS = 4;
+
+    @Param({"12500", "50000"})
+    public int classCount;
+
+    private Context context;
+
+    // hierarchy links classes, so every invocation needs fresh model
+    @Setup(Level.Invocation)
+    public void setUp() {
+        context = new Context();
+        for (int i = 0; i < classCount; i++) {
+            DocClass cls = new DocClass();
+            cls.className = "Ext.Cls" + i;
+            cls.shortClassName = "Cls" + i;
+            cls.parentClass = i > 0 ? "Ext.Cls" + (i - 1) / 4 : null;
+            context.getClasses().add(cls);
+            for (int j = 0; j < METHODS_PER_CLASS; j++) {
+                DocMethod method = new DocMethod();
+                method.className = cls.className;
+                method.name = "method" + j;
+                context.getMethods().add(method);
+            }
+        }
+    }
+
+    @Benchmark
+    public Context build() {
+        new ClassHierarchy(context).build();
+        return context;
+    }
+}
@@ -0,0 +1,49 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.bench.CorpusGenerator;
+import extdoc.jsdoc.docs.Description;
+import extdoc.jsdoc.tags.impl.Comment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of description to html: code highlighting, {@link}
+ * replacement and building of short description
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinkBenchmark {
+
+    private final FileProcessorImpl processor = new FileProcessorImpl();
+
+    private String[] descriptions;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        processor.setQuiet();
+        List<String> list = new ArrayList<String>();
+        for (String content : new CorpusGenerator(0).generateComments(20)) {
+            String description = new Comment(content).getDescription();
+            if (description != null && description.length() > 0) {
+                list.add(description);
+            }
+        }
+        descriptions = list.toArray(new String[list.size()]);
+    }
+
+    @Benchmark
+    public Description inlineLinks() {
+        String description = descriptions[next];
+        next = (next + 1) % descriptions.length;
+        return processor.inlineLinks(description, true);
+    }
+}
@@ -0,0 +1,72 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.bench.CorpusGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan of source files for doc comments and complete processing of
+ * sources into the model, on generated corpora of several sizes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int classes;
+
+    private File corpus;
+
+    private File[] files;
+
+    private byte[][] contents;
+
+    private final SourceParser parser = new SourceParser();
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = CorpusGenerator.createTempDir();
+        List<File> generated =
+                new CorpusGenerator(0).generate(corpus, classes);
+        files = generated.toArray(new File[generated.size()]);
+        contents = new byte[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            contents[i] = parser.read(files[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        CorpusGenerator.delete(corpus);
+    }
+
+    /**
+     * Search for comments in files already read
+     */
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        for (int i = 0; i < files.length; i++) {
+            blackhole.consume(parser.parse(files[i], contents[i]));
+        }
+    }
+
+    /**
+     * Reading, parsing and merging of all files, building of hierarchy
+     */
+    @Benchmark
+    public int process() {
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        processor.process(null, new String[]{corpus.getPath()});
+        return processor.getContext().getClasses().size();
+    }
+}
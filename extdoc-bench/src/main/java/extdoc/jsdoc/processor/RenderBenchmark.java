@@ -0,0 +1,87 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.bench.CorpusGenerator;
+import extdoc.jsdoc.docs.DocClass;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalling and transformation of one class page with the class
+ * template of the ext template, streamed and through DOM, and the same
+ * page written by built-in renderer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    private static final String CLASS_TEMPLATE = "/tpl/class.xsl";
+
+    private static final int CLASSES = 100;
+
+    @Param({"stream", "dom", "ext"})
+    public String mode;
+
+    private List<DocClass> classes;
+
+    private PageRenderer renderer;
+
+    private int next = 0;
+
+    // page is rendered, but not saved
+    private final OutputStream out = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() throws IOException, JAXBException,
+            TransformerException {
+        File corpus = CorpusGenerator.createTempDir();
+        try {
+            new CorpusGenerator(0).generate(corpus, CLASSES);
+            FileProcessorImpl processor = new FileProcessorImpl();
+            processor.setQuiet();
+            processor.process(null, new String[]{corpus.getPath()});
+            classes = processor.getContext().getClasses();
+        } finally {
+            CorpusGenerator.delete(corpus);
+        }
+        if (ExtClassPageRenderer.NAME.equals(mode)) {
+            renderer = new ExtClassPageRenderer();
+            return;
+        }
+        URL template = RenderBenchmark.class.getResource(CLASS_TEMPLATE);
+        renderer = new ClassPageRenderer(
+                JAXBContext.newInstance("extdoc.jsdoc.docs"),
+                TransformerFactory.newInstance().newTemplates(
+                        new StreamSource(template.toString())),
+                "dom".equals(mode));
+    }
+
+    @Benchmark
+    public void render() throws TransformerException {
+        DocClass docClass = classes.get(next);
+        next = (next + 1) % classes.size();
+        renderer.render(docClass, out);
+    }
+}
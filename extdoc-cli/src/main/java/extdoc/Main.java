@@ -17,7 +17,7 @@ public class Main {
 
     private static Options options = null;
     private static final String WRONG_CLI_ARGUMENTS = "Wrong command line arguments: {0}";
-    private static final String HELP_MESSAGE = "java -jar ext-doc.jar [-p project] -o output [-s source1 -s source2 ...]";
+    private static final String HELP_MESSAGE = "java -jar ext-doc.jar [-p project] -o output|--serve port [-s source1 -s source2 ...]";
 
     private static void wrongCli(String msg){
         System.err.println(MessageFormat.format(WRONG_CLI_ARGUMENTS, msg));
@@ -54,6 +54,52 @@ public class Main {
                 }else if (cmd.hasOption("verbose")){
                     processor.setVerbose();
                 }
+                if(cmd.hasOption("threads")){
+                    processor.setThreads(
+                            parsePositive(cmd.getOptionValue("threads"),
+                                    "Number of threads"));
+                }
+                if(cmd.hasOption("cache")){
+                    processor.setCacheDir(cmd.getOptionValue("cache"));
+                }
+                if(cmd.hasOption("incremental")){
+                    processor.setIncremental(true);
+                }
+                if(cmd.hasOption("dom-render")){
+                    processor.setDomRender(true);
+                }
+                if(cmd.hasOption("link-resources")){
+                    processor.setLinkResources(true);
+                }
+                if(cmd.hasOption("gzip")){
+                    processor.setGzip(true);
+                }
+                if(cmd.hasOption("stats")){
+                    processor.setStatsFile(cmd.getOptionValue("stats"));
+                }
+                if(cmd.hasOption("bind")){
+                    processor.setBindAddress(cmd.getOptionValue("bind"));
+                }
+                if(cmd.hasOption("serve")){
+                    processor.serve(
+                            cmd.getOptionValue("project"),
+                            cmd.getOptionValues("source"),
+                            cmd.getOptionValue("template"),
+                            parsePositive(cmd.getOptionValue("serve"),
+                                    "Port"));
+                    return;
+                }
+                if(!cmd.hasOption("output")){
+                    throw new WrongCliException("Output folder should be specified");
+                }
+                if(cmd.hasOption("watch")){
+                    processor.watch(
+                            cmd.getOptionValue("project"),
+                            cmd.getOptionValues("source"),
+                            cmd.getOptionValue("output"),
+                            cmd.getOptionValue("template"));
+                    return;
+                }
                 processor.process(
                         cmd.getOptionValue("project"),
                         cmd.getOptionValues("source")
@@ -69,13 +115,37 @@ public class Main {
         }
     }
 
+    private static int parsePositive(String value, String name)
+            throws WrongCliException {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0){
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new WrongCliException(MessageFormat.format(
+                "{0} should be a positive integer: {1}", name, value));
+    }
+
     @SuppressWarnings("static-access")
     public static void prepareOptions() {
         
         options = new Options();
 
         Option quiet = new Option("q", "quiet", false, "be extra quiet");
+        Option incremental = new Option("i", "incremental", false,
+                "generate only pages whose content has changed since previous run");
+        Option domRender = new Option(null, "dom-render", false,
+                "build DOM of every class before transformation (slower, uses more memory)");
+        Option linkResources = new Option(null, "link-resources", false,
+                "hard link template resources to output instead of copying them, if they are on the same file system");
+        Option gzip = new Option(null, "gzip", false,
+                "also write gzip compressed copy of every text file, for web servers serving precompressed files");
         Option verbose = new Option("v", "verbose", false, "be extra verbose");
+        Option watch = new Option("w", "watch", false,
+                "keep running and regenerate documentation when sources or template change");
 
         Option project = OptionBuilder.withArgName("project")
                 .hasArg()
@@ -86,8 +156,7 @@ public class Main {
 
         Option output = OptionBuilder.withArgName("output")
                 .hasArg()
-                .withDescription("Directory where documentation should be created.")
-                .isRequired()
+                .withDescription("Directory where documentation should be created, or zip archive if name ends with .zip.")
                 .withLongOpt("output")
                 .create('o');
 
@@ -105,11 +174,51 @@ public class Main {
                 .withLongOpt("source")
                 .create('s');
 
+        Option threads = OptionBuilder.withArgName("threads")
+                .hasArg()
+                .withDescription("Number of threads used to parse sources, render pages and write gzip copies; resource copy and --serve use at least as many. Default: 1")
+                .withLongOpt("threads")
+                .create();
+
+        Option serve = OptionBuilder.withArgName("port")
+                .hasArg()
+                .withDescription("Serve documentation at http://localhost:port/ generating pages on request, output is not needed.")
+                .withLongOpt("serve")
+                .create();
+
+        Option bind = OptionBuilder.withArgName("address")
+                .hasArg()
+                .withDescription("Address --serve listens on, ex. 0.0.0.0 to serve other hosts. Default: loopback address, documentation is reachable only from this host.")
+                .withLongOpt("bind")
+                .create();
+
+        Option stats = OptionBuilder.withArgName("file.json")
+                .hasArg()
+                .withDescription("Write timing and throughput of every phase to JSON file.")
+                .withLongOpt("stats")
+                .create();
+
+        Option cache = OptionBuilder.withArgName("cache")
+                .hasArg()
+                .withDescription("Directory to keep parsed source files and compiled templates between runs.")
+                .withLongOpt("cache")
+                .create();
+
         options.addOption(quiet);
         options.addOption(verbose);
         options.addOption(project);
         options.addOption(output);
         options.addOption(template);
         options.addOption(source);
+        options.addOption(threads);
+        options.addOption(cache);
+        options.addOption(incremental);
+        options.addOption(domRender);
+        options.addOption(watch);
+        options.addOption(serve);
+        options.addOption(bind);
+        options.addOption(stats);
+        options.addOption(linkResources);
+        options.addOption(gzip);
     }
 }
@@ -23,7 +23,11 @@ public class MainTest {
         "-p projectFile",
         "-o output",
         "-p projectFile -o outputFolder -t templateFile -q -verbose",
-        "-s source"
+        "-s source",
+        "-p projectFile -o outputFolder -t templateFile --threads 0",
+        "-p projectFile -o outputFolder -t templateFile --threads many",
+        "-p projectFile -t templateFile",
+        "-p projectFile -t templateFile --serve http"
     };
 
     @BeforeClass
@@ -67,4 +71,119 @@ public class MainTest {
         verify(fileProcessor);
     }
 
+    @Test
+    public void threadsTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setThreads(4);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --threads 4".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void cacheTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setCacheDir("cacheFolder");
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --cache cacheFolder".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void incrementalTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setIncremental(true);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --incremental".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void watchTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.watch("projectFile", null, "outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --watch".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void serveTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.serve("projectFile", null, "templateFile", 8080);
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -t templateFile --serve 8080".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void serveBindTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setBindAddress("0.0.0.0");
+        fileProcessor.serve("projectFile", null, "templateFile", 8080);
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -t templateFile --serve 8080 --bind 0.0.0.0".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void statsTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setStatsFile("stats.json");
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --stats stats.json".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void linkResourcesTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setLinkResources(true);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --link-resources".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void gzipTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setGzip(true);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --gzip".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void zipTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("output.zip", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o output.zip -t templateFile".split(" "));
+        verify(fileProcessor);
+    }
+
+    @Test
+    public void domRenderTest() throws WrongCliException {
+        FileProcessor fileProcessor = createMock(FileProcessor.class);
+        fileProcessor.setDomRender(true);
+        fileProcessor.process("projectFile", null);
+        fileProcessor.saveToFolder("outputFolder", "templateFile");
+        replay(fileProcessor);
+        Main.processCli(fileProcessor, "-p projectFile -o outputFolder -t templateFile --dom-render".split(" "));
+        verify(fileProcessor);
+    }
+
 }
@@ -2,6 +2,73 @@ Ext.BLANK_IMAGE_URL = 'resources/s.gif';
 
 Docs = {};
 
+/**
+ * Answers search queries from the index generated with documentation.
+ * Index is split by pairs of characters, shard for the first two
+ * characters of the query is loaded once and filtered locally.
+ * One character queries find names starting with the character.
+ */
+Docs.SearchProxy = Ext.extend(Ext.data.MemoryProxy, {
+    url: 'output/search/',
+
+    constructor: function(config){
+        Docs.SearchProxy.superclass.constructor.call(this, {data: []});
+        Ext.apply(this, config);
+        this.shards = {};
+    },
+
+    shardName: function(q){
+        return q.substring(0, 2).replace(/[^a-z0-9]/g, '_');
+    },
+
+    doRequest: function(action, rs, params, reader, callback, scope, options){
+        var q = (params.q || '').toLowerCase();
+        if(q.length < 1){
+            this.answer([], q, params.qt, reader, callback, scope, options);
+            return;
+        }
+        // shard of one character lists only names starting with it
+        var qt = q.length < 2 ? 'Starts with' : params.qt;
+        var name = this.shardName(q);
+        if(this.shards[name]){
+            this.answer(this.shards[name], q, qt, reader, callback, scope, options);
+            return;
+        }
+        Ext.Ajax.request({
+            url: this.url + name + '.json',
+            scope: this,
+            success: function(response){
+                this.shards[name] = Ext.decode(response.responseText).data;
+                this.answer(this.shards[name], q, qt, reader, callback, scope, options);
+            },
+            failure: function(){
+                // no shard - no names contain these characters
+                this.answer([], q, qt, reader, callback, scope, options);
+            }
+        });
+    },
+
+    answer: function(shard, q, qt, reader, callback, scope, options){
+        var data = [];
+        for(var i = 0, len = shard.length; i < len; i++){
+            var member = shard[i].member.toLowerCase();
+            var found;
+            if(qt == 'Starts with'){
+                found = member.indexOf(q) == 0;
+            }else if(qt == 'Ends with'){
+                found = member.length >= q.length &&
+                        member.lastIndexOf(q) == member.length - q.length;
+            }else{
+                found = member.indexOf(q) != -1;
+            }
+            if(found){
+                data.push(shard[i]);
+            }
+        }
+        callback.call(scope, reader.readRecords({data: data}), options, true);
+    }
+});
+
 ApiPanel = function() {
     ApiPanel.superclass.constructor.call(this, {
         id:'api-tree',
@@ -21,7 +88,15 @@ ApiPanel = function() {
         collapseMode:'mini',
         loader: new Ext.tree.TreeLoader({
 			preloadChildren: true,
-			clearOnLoad: false
+			clearOnLoad: false,
+			// packages of lazy tree are loaded from their own files
+			dataUrl: Docs.treeUrl,
+			requestMethod: 'GET',
+			listeners: {
+				beforeload: function(loader, node){
+					loader.dataUrl = Docs.treeUrl + node.attributes.file;
+				}
+			}
 		}),
         root: new Ext.tree.AsyncTreeNode({
             text:'Ext JS',
@@ -37,6 +112,13 @@ ApiPanel = function() {
     this.getSelectionModel().on('beforeselect', function(sm, node){
         return node.isLeaf();
     });
+
+    // packages loaded while filtering are filtered too
+    this.loader.on('load', function(){
+        if(this.filterField && this.filterField.getValue()){
+            this.filterTree(this.filterField);
+        }
+    }, this, {buffer: 100});
 };
 
 Ext.extend(ApiPanel, Ext.tree.TreePanel, {
@@ -78,6 +160,7 @@ Ext.extend(ApiPanel, Ext.tree.TreePanel, {
         ApiPanel.superclass.initComponent.call(this);
     },
 	filterTree: function(t, e){
+		this.filterField = t;
 		var text = t.getValue();
 		Ext.each(this.hiddenPkgs, function(n){
 			n.ui.show();
@@ -218,9 +301,7 @@ DocPanel = Ext.extend(Ext.Panel, {
 MainPanel = function(){
 	
 	this.searchStore = new Ext.data.Store({
-        proxy: new Ext.data.ScriptTagProxy({
-            url: 'http://extjs.com/playpen/api.php'
-        }),
+        proxy: new Docs.SearchProxy(),
         reader: new Ext.data.JsonReader({
 	            root: 'data'
 	        }, 
@@ -322,7 +403,7 @@ Ext.extend(MainPanel, Ext.TabPanel, {
                 id: id,
                 cclass : cls,
                 autoLoad: autoLoad,
-                iconCls: Docs.icons[cls]
+                iconCls: Docs.icons[cls] || 'icon-cls'
             }));
             this.setActiveTab(p);
         }
@@ -457,10 +538,6 @@ Ext.app.SearchField = Ext.extend(Ext.form.TwinTriggerField, {
             this.onTrigger1Click();
             return;
         }
-		if(v.length < 2){
-			Ext.Msg.alert('Invalid Search', 'You must enter a minimum of 2 characters to search the API');
-			return;
-		}
 		this.store.baseParams[this.paramName] = v;
         var o = {start: 0};
         this.store.reload({params:o});
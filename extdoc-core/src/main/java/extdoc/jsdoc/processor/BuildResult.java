@@ -0,0 +1,90 @@
+package extdoc.jsdoc.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one build, returned by FileProcessor.build(). It does not
+ * change after build is finished and is not shared with later builds.
+ */
+public final class BuildResult {
+
+    private final int classCount;
+
+    private final int filesRead;
+
+    private final int pagesWritten;
+
+    private final int sourcePagesWritten;
+
+    private final long bytesWritten;
+
+    private final Map<String, Integer> tags;
+
+    private final List<Throwable> errors;
+
+    BuildResult(int classCount, BuildStats stats, List<Throwable> errors) {
+        this.classCount = classCount;
+        this.filesRead = stats.getFilesRead();
+        this.pagesWritten = stats.getPagesWritten();
+        this.sourcePagesWritten = stats.getSourcePagesWritten();
+        this.bytesWritten = stats.getBytesWritten();
+        this.tags = Collections.unmodifiableMap(stats.getTags());
+        this.errors = Collections.unmodifiableList(
+                new ArrayList<Throwable>(errors));
+    }
+
+    /**
+     * @return number of documented classes
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @return number of source files parsed or taken from parse cache
+     */
+    public int getFilesRead() {
+        return filesRead;
+    }
+
+    /**
+     * @return number of class pages written, pages that were up to date
+     * are not counted
+     */
+    public int getPagesWritten() {
+        return pagesWritten;
+    }
+
+    public int getSourcePagesWritten() {
+        return sourcePagesWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return number of times every tag was found, by tag name
+     */
+    public Map<String, Integer> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return errors that stopped part of the build, in order they
+     * happened
+     */
+    public List<Throwable> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return true if build finished without errors
+     */
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+}
@@ -0,0 +1,335 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.tags.impl.Comment;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Timing and throughput of one build: wall and CPU time of every phase,
+ * amounts of data read and written, the slowest files and classes and
+ * number of times every tag was found.
+ * CPU time of a phase includes time spent by worker threads, charged to
+ * the phase the work belongs to. Work may be recorded from several
+ * threads.
+ */
+class BuildStats {
+
+    public static final String PARSE = "parse";
+    public static final String HIERARCHY = "hierarchy";
+    public static final String INHERITANCE = "inheritance";
+    public static final String TREE = "tree";
+    public static final String RESOURCE_COPY = "resourceCopy";
+    public static final String SOURCE_COPY = "sourceCopy";
+    public static final String RENDER = "render";
+    public static final String TREE_RENDER = "treeRender";
+    public static final String SEARCH = "search";
+    public static final String COMPRESS = "compress";
+
+    private static final String ENCODING = "UTF8";
+
+    private static final int SLOWEST_COUNT = 10;
+
+    private static final double NANOS_IN_MILLI = 1000000.0;
+
+    private static class Phase {
+        long wallNanos;
+        long cpuNanos;
+    }
+
+    private static class Timing {
+        final String name;
+        final long nanos;
+
+        Timing(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final Comparator<Timing> FASTEST_FIRST =
+            new Comparator<Timing>() {
+                public int compare(Timing t1, Timing t2) {
+                    return t1.nanos < t2.nanos ? -1 :
+                            (t1.nanos == t2.nanos ? 0 : 1);
+                }
+            };
+
+    private final ThreadMXBean threadBean =
+            ManagementFactory.getThreadMXBean();
+
+    private final boolean cpuTimeSupported =
+            threadBean.isCurrentThreadCpuTimeSupported();
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final Map<String, Phase> phases =
+            new LinkedHashMap<String, Phase>();
+
+    private String currentPhase = null;
+
+    private Thread phaseThread = null;
+
+    private long phaseStart;
+
+    private long phaseCpuStart;
+
+    private int filesRead = 0;
+
+    private long bytesRead = 0;
+
+    private int comments = 0;
+
+    private int pagesWritten = 0;
+
+    private int sourcePagesWritten = 0;
+
+    private long bytesWritten = 0;
+
+    private final PriorityQueue<Timing> slowestFiles =
+            new PriorityQueue<Timing>(SLOWEST_COUNT + 1, FASTEST_FIRST);
+
+    private final PriorityQueue<Timing> slowestClasses =
+            new PriorityQueue<Timing>(SLOWEST_COUNT + 1, FASTEST_FIRST);
+
+    private final Map<String, Integer> tags = new TreeMap<String, Integer>();
+
+    /**
+     * @return CPU time of the calling thread in nanoseconds, 0 if it can
+     * not be measured
+     */
+    public long threadCpuTime() {
+        return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Starts phase on the calling thread, phase started before is ended
+     * @param name phase name
+     */
+    public synchronized void startPhase(String name) {
+        endPhase();
+        currentPhase = name;
+        phaseThread = Thread.currentThread();
+        phaseStart = System.nanoTime();
+        phaseCpuStart = threadCpuTime();
+    }
+
+    public synchronized void endPhase() {
+        if (currentPhase == null) {
+            return;
+        }
+        Phase phase = phase(currentPhase);
+        phase.wallNanos += System.nanoTime() - phaseStart;
+        phase.cpuNanos += threadCpuTime() - phaseCpuStart;
+        currentPhase = null;
+        phaseThread = null;
+    }
+
+    private Phase phase(String name) {
+        Phase phase = phases.get(name);
+        if (phase == null) {
+            phase = new Phase();
+            phases.put(name, phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Adds CPU time of work done for phase. Time of the thread that
+     * started phase is measured by the phase itself while it runs, so only
+     * time of other threads is added.
+     * @param name phase name
+     * @param cpuNanos CPU time of the calling thread spent on the work
+     */
+    public synchronized void workDone(String name, long cpuNanos) {
+        if (!name.equals(currentPhase) ||
+                Thread.currentThread() != phaseThread) {
+            phase(name).cpuNanos += cpuNanos;
+        }
+    }
+
+    private void workerCpu(long cpuNanos) {
+        if (currentPhase != null) {
+            workDone(currentPhase, cpuNanos);
+        }
+    }
+
+    private static void addTiming(PriorityQueue<Timing> slowest,
+                                  String name, long nanos) {
+        slowest.add(new Timing(name, nanos));
+        if (slowest.size() > SLOWEST_COUNT) {
+            slowest.poll();
+        }
+    }
+
+    /**
+     * @param file source file
+     * @param bytes number of bytes read from file
+     * @param commentCount number of comments found
+     * @param nanos time spent on file
+     * @param cpuNanos CPU time of the calling thread spent on file
+     */
+    public synchronized void fileParsed(File file, long bytes,
+                                        int commentCount,
+                                        long nanos, long cpuNanos) {
+        filesRead++;
+        bytesRead += bytes;
+        comments += commentCount;
+        addTiming(slowestFiles, file.getPath(), nanos);
+        workerCpu(cpuNanos);
+    }
+
+    public synchronized void pageWritten(String className,
+                                         long nanos, long cpuNanos) {
+        pagesWritten++;
+        addTiming(slowestClasses, className, nanos);
+        workerCpu(cpuNanos);
+    }
+
+    public synchronized void tagsFound(Comment comment) {
+        comment.countTags(tags);
+    }
+
+    public synchronized void sourcePageWritten() {
+        sourcePagesWritten++;
+    }
+
+    public synchronized void bytesWritten(long bytes) {
+        bytesWritten += bytes;
+    }
+
+    public synchronized int getFilesRead() {
+        return filesRead;
+    }
+
+    public synchronized int getPagesWritten() {
+        return pagesWritten;
+    }
+
+    public synchronized int getSourcePagesWritten() {
+        return sourcePagesWritten;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return number of times every tag was found, by tag name
+     */
+    public synchronized Map<String, Integer> getTags() {
+        return new TreeMap<String, Integer>(tags);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / NANOS_IN_MILLI);
+    }
+
+    private static String perSecond(long count, long nanos) {
+        return nanos > 0 ?
+                String.format(Locale.US, "%.1f", count * 1e9 / nanos) : "0";
+    }
+
+    private static void appendTimings(StringBuilder sb, String key,
+                                      PriorityQueue<Timing> slowest) {
+        List<Timing> timings = new ArrayList<Timing>(slowest);
+        Collections.sort(timings, Collections.reverseOrder(FASTEST_FIRST));
+        sb.append("  \"").append(key).append("\": [");
+        for (int i = 0; i < timings.size(); i++) {
+            Timing timing = timings.get(i);
+            sb.append(i > 0 ? ",\n" : "\n").append("    {\"name\": ");
+            SearchIndex.appendJson(sb, timing.name);
+            sb.append(", \"ms\": ").append(millis(timing.nanos)).append('}');
+        }
+        sb.append(timings.isEmpty() ? "]" : "\n  ]");
+    }
+
+    /**
+     * @return report in JSON format
+     */
+    public synchronized String toJson() {
+        endPhase();
+        long parseNanos = phases.containsKey(PARSE) ?
+                phases.get(PARSE).wallNanos : 0;
+        long renderNanos = phases.containsKey(RENDER) ?
+                phases.get(RENDER).wallNanos : 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"timestamp\": ").append(startTime).append(",\n");
+        sb.append("  \"wallMs\": ")
+                .append(millis(System.nanoTime() - startNanos))
+                .append(",\n");
+        sb.append("  \"cpuTimeSupported\": ").append(cpuTimeSupported)
+                .append(",\n");
+        sb.append("  \"phases\": {");
+        boolean first = true;
+        for (Map.Entry<String, Phase> e : phases.entrySet()) {
+            sb.append(first ? "\n" : ",\n").append("    ");
+            SearchIndex.appendJson(sb, e.getKey());
+            sb.append(": {\"wallMs\": ")
+                    .append(millis(e.getValue().wallNanos))
+                    .append(", \"cpuMs\": ")
+                    .append(millis(e.getValue().cpuNanos))
+                    .append('}');
+            first = false;
+        }
+        sb.append(first ? "},\n" : "\n  },\n");
+        sb.append("  \"filesRead\": ").append(filesRead).append(",\n");
+        sb.append("  \"bytesRead\": ").append(bytesRead).append(",\n");
+        sb.append("  \"comments\": ").append(comments).append(",\n");
+        sb.append("  \"commentsPerSecond\": ")
+                .append(perSecond(comments, parseNanos)).append(",\n");
+        sb.append("  \"pagesWritten\": ").append(pagesWritten).append(",\n");
+        sb.append("  \"pagesPerSecond\": ")
+                .append(perSecond(pagesWritten, renderNanos)).append(",\n");
+        sb.append("  \"sourcePagesWritten\": ").append(sourcePagesWritten)
+                .append(",\n");
+        sb.append("  \"bytesWritten\": ").append(bytesWritten).append(",\n");
+        appendTimings(sb, "slowestFiles", slowestFiles);
+        sb.append(",\n");
+        appendTimings(sb, "slowestClasses", slowestClasses);
+        sb.append(",\n");
+        sb.append("  \"tags\": {");
+        first = true;
+        for (Map.Entry<String, Integer> e : tags.entrySet()) {
+            sb.append(first ? "\n" : ",\n").append("    ");
+            SearchIndex.appendJson(sb, e.getKey());
+            sb.append(": ").append(e.getValue());
+            first = false;
+        }
+        sb.append(first ? "}\n" : "\n  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes report in JSON format
+     * @param file report file
+     * @throws IOException if report can not be written
+     */
+    public void save(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        Writer out = new OutputStreamWriter(
+                new FileOutputStream(file), ENCODING);
+        try {
+            out.write(toJson());
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Links classes with their parents and subclasses and groups members by
+ * class. Classes are looked up by name in a map, so the work done is
+ * linear in the number of classes and members. Subclasses and members
+ * keep the order in which they were declared.
+ */
+class ClassHierarchy {
+
+    private final Context context;
+
+    private final Map<String, DocClass> classes =
+            new HashMap<String, DocClass>();
+
+    public ClassHierarchy(Context context) {
+        this.context = context;
+    }
+
+    public void build() {
+        for (DocClass docClass : context.getClasses()) {
+            if (docClass.className != null) {
+                classes.put(docClass.className, docClass);
+            }
+        }
+        for (DocClass cls : context.getClasses()) {
+            DocClass parent = find(cls.parentClass);
+            if (parent != null) {
+                ClassDescr subClass = new ClassDescr();
+                subClass.className = cls.className;
+                subClass.shortClassName = cls.shortClassName;
+                parent.subClasses.add(subClass);
+                cls.parent = parent;
+            }
+        }
+        for (DocCfg cfg : context.getCfgs()) {
+            DocClass docClass = find(cfg.className);
+            if (docClass != null) {
+                docClass.cfgs.add(cfg);
+            }
+        }
+        for (DocProperty property : context.getProperties()) {
+            DocClass docClass = find(property.className);
+            if (docClass != null) {
+                docClass.properties.add(property);
+            }
+        }
+        for (DocMethod method : context.getMethods()) {
+            DocClass docClass = find(method.className);
+            if (docClass != null) {
+                docClass.methods.add(method);
+            }
+        }
+        for (DocEvent event : context.getEvents()) {
+            DocClass docClass = find(event.className);
+            if (docClass != null) {
+                docClass.events.add(event);
+            }
+        }
+    }
+
+    private DocClass find(String className) {
+        return className != null ? classes.get(className) : null;
+    }
+}
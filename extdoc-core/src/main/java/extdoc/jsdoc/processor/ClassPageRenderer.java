@@ -0,0 +1,138 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import org.w3c.dom.Document;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.OutputStream;
+
+/**
+ * Renders class pages with compiled class template.
+ * Templates are shared, but Transformer, Marshaller and DocumentBuilder
+ * are not thread safe, so every thread rendering pages gets its own.
+ * By default marshaller events are passed to the transformer as SAX
+ * events, without building DOM of the class. DOM is used if requested
+ * or if transformer factory does not support SAX.
+ */
+class ClassPageRenderer implements PageRenderer {
+
+    private final JAXBContext jaxbContext;
+
+    private final Templates templates;
+
+    private final DocumentBuilderFactory builderFactory;
+
+    private final boolean domRender;
+
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>();
+
+    private static class Worker {
+        Marshaller marshaller;
+        // streaming render
+        SAXTransformerFactory saxFactory;
+        // DOM render
+        DocumentBuilder docBuilder;
+        Transformer transformer;
+    }
+
+    public ClassPageRenderer(JAXBContext jaxbContext, Templates templates,
+                             boolean domRender) {
+        this.jaxbContext = jaxbContext;
+        this.templates = templates;
+        this.domRender = domRender;
+        builderFactory = DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+    }
+
+    private Worker getWorker() throws JAXBException,
+            ParserConfigurationException, TransformerException {
+        Worker worker = workers.get();
+        if (worker == null) {
+            worker = new Worker();
+            worker.marshaller = jaxbContext.createMarshaller();
+            worker.marshaller.setProperty(
+                    Marshaller.JAXB_FORMATTED_OUTPUT,
+                    true
+            );
+            if (!domRender) {
+                TransformerFactory factory = TransformerFactory.newInstance();
+                if (factory.getFeature(SAXTransformerFactory.FEATURE)) {
+                    worker.saxFactory = (SAXTransformerFactory) factory;
+                }
+            }
+            if (worker.saxFactory == null) {
+                // factory itself is not thread safe
+                synchronized (builderFactory) {
+                    worker.docBuilder = builderFactory.newDocumentBuilder();
+                }
+                worker.transformer = templates.newTransformer();
+            }
+            workers.set(worker);
+        }
+        return worker;
+    }
+
+    /**
+     * Renders page of one class on the calling thread
+     * @param docClass class to render
+     * @param out stream page is written to, it is not closed
+     * @throws TransformerException if page can not be rendered, message
+     * contains name of the class
+     */
+    public void render(DocClass docClass, OutputStream out)
+            throws TransformerException {
+        try {
+            Worker worker = getWorker();
+            if (worker.saxFactory != null) {
+                renderStream(worker, docClass, out);
+            } else {
+                renderDom(worker, docClass, out);
+            }
+        } catch (JAXBException e) {
+            throw error(docClass, e);
+        } catch (ParserConfigurationException e) {
+            throw error(docClass, e);
+        } catch (TransformerException e) {
+            throw error(docClass, e);
+        }
+    }
+
+    private void renderStream(Worker worker, DocClass docClass,
+                              OutputStream out)
+            throws TransformerException, JAXBException {
+        // handler can transform only one document
+        TransformerHandler handler =
+                worker.saxFactory.newTransformerHandler(templates);
+        handler.setResult(new StreamResult(out));
+        worker.marshaller.marshal(docClass, handler);
+    }
+
+    private void renderDom(Worker worker, DocClass docClass,
+                           OutputStream out)
+            throws TransformerException, JAXBException {
+        Document doc = worker.docBuilder.newDocument();
+        worker.marshaller.marshal(docClass, doc);
+        worker.transformer.transform(new DOMSource(doc),
+                new StreamResult(out));
+        worker.transformer.reset();
+    }
+
+    private static TransformerException error(DocClass docClass,
+                                              Exception e) {
+        return new TransformerException(
+                "Can not save class " + docClass.className, e);
+    }
+}
@@ -0,0 +1,244 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.schema.Doc;
+import extdoc.jsdoc.schema.Sources;
+import extdoc.jsdoc.schema.Tag;
+import extdoc.jsdoc.schema.Tags;
+import extdoc.jsdoc.tplschema.ClassTemplate;
+import extdoc.jsdoc.tplschema.Copy;
+import extdoc.jsdoc.tplschema.Resources;
+import extdoc.jsdoc.tplschema.Search;
+import extdoc.jsdoc.tplschema.Template;
+import extdoc.jsdoc.tplschema.TreeTemplate;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+
+/**
+ * Reads project file (ext-doc.xsd) and template file (template.xsd) to
+ * the classes generated from their schemas, with StAX instead of JAXB.
+ * Both files are tiny, so creating JAXB context for them would take far
+ * longer than reading them. Same as JAXB, unknown elements and attributes
+ * are skipped and missing attributes are left null.
+ */
+class ConfigReader {
+
+    private final XMLStreamReader reader;
+
+    private ConfigReader(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param file project file
+     * @return project
+     * @throws IOException if file can not be read or is not a project file
+     */
+    public static Doc readProject(File file) throws IOException {
+        return (Doc) read(file, "doc");
+    }
+
+    /**
+     * @param file template file
+     * @return template
+     * @throws IOException if file can not be read or is not a template file
+     */
+    public static Template readTemplate(File file) throws IOException {
+        return (Template) read(file, "template");
+    }
+
+    private static Object read(File file, String root) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                false);
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                ConfigReader configReader = new ConfigReader(reader);
+                if (!configReader.nextChild() ||
+                        !root.equals(reader.getLocalName())) {
+                    throw new IOException(MessageFormat.format(
+                            "{0}: root element must be {1}", file, root));
+                }
+                return "doc".equals(root) ?
+                        configReader.readDoc() :
+                        configReader.readTemplate();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(MessageFormat.format("{0}: {1}",
+                    file, e.getMessage()), e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Moves to the next child of current element
+     * @return false if there are no more children, reader is at the end
+     * of current element then
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the end of current element, skipping its content
+     */
+    private void skip() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private boolean at(String name) {
+        return name.equals(reader.getLocalName());
+    }
+
+    private String attr(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    /**
+     * @return value of xs:boolean attribute, null if it is missing or
+     * invalid
+     */
+    private Boolean booleanAttr(String name) {
+        String value = attr(name);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        if ("true".equals(value) || "1".equals(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equals(value) || "0".equals(value)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    private Doc readDoc() throws XMLStreamException {
+        Doc doc = new Doc();
+        doc.setVersion(attr("version"));
+        while (nextChild()) {
+            if (at("sources")) {
+                doc.setSources(readSources());
+            } else if (at("tags")) {
+                doc.setTags(readTags());
+            } else {
+                skip();
+            }
+        }
+        return doc;
+    }
+
+    private Sources readSources() throws XMLStreamException {
+        Sources sources = new Sources();
+        while (nextChild()) {
+            if (at("source")) {
+                extdoc.jsdoc.schema.Source source =
+                        new extdoc.jsdoc.schema.Source();
+                source.setSrc(attr("src"));
+                source.setMatch(attr("match"));
+                source.setSkipHidden(booleanAttr("skipHidden"));
+                sources.getSource().add(source);
+            }
+            skip();
+        }
+        return sources;
+    }
+
+    private Tags readTags() throws XMLStreamException {
+        Tags tags = new Tags();
+        while (nextChild()) {
+            if (at("tag")) {
+                Tag tag = new Tag();
+                tag.setName(attr("name"));
+                tag.setTitle(attr("title"));
+                tag.setFormat(attr("format"));
+                tags.getTag().add(tag);
+            }
+            skip();
+        }
+        return tags;
+    }
+
+    private Template readTemplate() throws XMLStreamException {
+        Template template = new Template();
+        while (nextChild()) {
+            if (at("classTemplate")) {
+                ClassTemplate classTemplate = new ClassTemplate();
+                classTemplate.setTpl(attr("tpl"));
+                classTemplate.setTargetDir(attr("targetDir"));
+                classTemplate.setRenderer(attr("renderer"));
+                template.setClassTemplate(classTemplate);
+                skip();
+            } else if (at("treeTemplate")) {
+                TreeTemplate treeTemplate = new TreeTemplate();
+                treeTemplate.setTpl(attr("tpl"));
+                treeTemplate.setTargetFile(attr("targetFile"));
+                treeTemplate.setMode(attr("mode"));
+                treeTemplate.setPackageDir(attr("packageDir"));
+                template.setTreeTemplate(treeTemplate);
+                skip();
+            } else if (at("source")) {
+                extdoc.jsdoc.tplschema.Source source =
+                        new extdoc.jsdoc.tplschema.Source();
+                source.setTargetDir(attr("targetDir"));
+                source.setWrapper(attr("wrapper"));
+                template.setSource(source);
+                skip();
+            } else if (at("resources")) {
+                template.setResources(readResources());
+            } else if (at("search")) {
+                Search search = new Search();
+                search.setTargetDir(attr("targetDir"));
+                template.setSearch(search);
+                skip();
+            } else {
+                skip();
+            }
+        }
+        return template;
+    }
+
+    private Resources readResources() throws XMLStreamException {
+        Resources resources = new Resources();
+        while (nextChild()) {
+            if (at("copy")) {
+                Copy copy = new Copy();
+                copy.setSrc(attr("src"));
+                copy.setDst(attr("dst"));
+                resources.getCopy().add(copy);
+            }
+            skip();
+        }
+        return resources;
+    }
+}
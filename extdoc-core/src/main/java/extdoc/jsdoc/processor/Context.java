@@ -17,8 +17,6 @@ class Context {
 
     private final static String TARGET_FILE_EXTENSION = "html";
 
-    long position = 0;
-
     long lastCommentPosition = 0;
 
     private DocClass currentClass = null;
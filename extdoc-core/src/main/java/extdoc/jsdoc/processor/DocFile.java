@@ -15,5 +15,7 @@ class DocFile {
     public String fileName;
     public String targetFileName;
     public File file;
+    // hex digest of file content, null if it was not calculated
+    String hash;
     List<Doc> docs = new ArrayList<Doc>();
 }
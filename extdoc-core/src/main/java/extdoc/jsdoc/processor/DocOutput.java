@@ -0,0 +1,289 @@
+package extdoc.jsdoc.processor;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Place generated documentation is written to: a folder or a zip
+ * archive with the same layout. Files are addressed by paths relative
+ * to the output root with "/" as separator.
+ */
+abstract class DocOutput {
+
+    private static final String ARCHIVE_EXTENSION = ".zip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private long bytesWritten = 0;
+
+    /**
+     * @param name output folder, or archive if name ends with ".zip"
+     * @param gzipThreads number of threads writing gzip compressed copies
+     * of text files to output folder, 0 to write no copies. Archive has
+     * no copies.
+     * @param stats build statistics, CPU time of compression is charged
+     * to it
+     * @return output, archive is created at once
+     * @throws IOException if archive can not be created
+     */
+    public static DocOutput create(String name, int gzipThreads,
+                                   BuildStats stats)
+            throws IOException {
+        File file = new File(name);
+        if (name.toLowerCase(Locale.ENGLISH).endsWith(ARCHIVE_EXTENSION)) {
+            return new Archive(file);
+        }
+        return new Folder(file, gzipThreads > 0 ?
+                new GzipCompressor(gzipThreads, stats) : null);
+    }
+
+    /**
+     * Opens file for writing, existing file is replaced
+     * @param path path of the file
+     * @return stream that must be closed when file is written
+     * @throws IOException if file can not be created
+     */
+    public abstract OutputStream open(String path) throws IOException;
+
+    /**
+     * @return output folder, null if output is not a folder
+     */
+    public abstract File getFolder();
+
+    /**
+     * @return false if files can be written only one at a time, then a
+     * thread writing a file blocks the others until stream is closed
+     */
+    public abstract boolean isConcurrent();
+
+    /**
+     * Marks file written to output folder directly or kept from the
+     * previous build, so its compressed copy is written if needed
+     * @param path path of the file
+     */
+    public void written(String path) {
+    }
+
+    /**
+     * @return number of compressed copies written
+     */
+    public int getCompressed() {
+        return 0;
+    }
+
+    /**
+     * Waits for compressed copies and closes archive
+     * @throws IOException if output can not be completed
+     */
+    public abstract void close() throws IOException;
+
+    /**
+     * Copies file to output
+     * @param src file to copy
+     * @param path path of the copy
+     * @throws IOException if file can not be copied
+     */
+    public void copy(File src, String path) throws IOException {
+        InputStream in = new FileInputStream(src);
+        try {
+            OutputStream out = open(path);
+            try {
+                byte[] buf = new byte[BUFFER_SIZE];
+                int len;
+                while ((len = in.read(buf)) != -1) {
+                    out.write(buf, 0, len);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return number of bytes written to all files so far
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    synchronized void count(long bytes) {
+        bytesWritten += bytes;
+    }
+
+    /**
+     * Counts bytes written to the file
+     */
+    private class CountingStream extends FilterOutputStream {
+
+        private long size = 0;
+
+        private boolean closed = false;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            size += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            count(size);
+            closeFile(out);
+        }
+
+        /**
+         * Called once, when file is written
+         */
+        void closeFile(OutputStream out) throws IOException {
+            out.close();
+        }
+    }
+
+    private static class Folder extends DocOutput {
+
+        private final File root;
+
+        // null if compressed copies are not written
+        private final GzipCompressor compressor;
+
+        Folder(File root, GzipCompressor compressor) {
+            this.root = root;
+            this.compressor = compressor;
+            root.mkdirs();
+        }
+
+        private File file(String path) {
+            return new File(root, path.replace('/', File.separatorChar));
+        }
+
+        @Override
+        public OutputStream open(final String path) throws IOException {
+            File file = file(path);
+            File dir = file.getParentFile();
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            return new CountingStream(new BufferedOutputStream(
+                    new FileOutputStream(file), BUFFER_SIZE)) {
+                @Override
+                void closeFile(OutputStream out) throws IOException {
+                    out.close();
+                    written(path);
+                }
+            };
+        }
+
+        @Override
+        public void written(String path) {
+            if (compressor != null) {
+                compressor.add(file(path));
+            }
+        }
+
+        @Override
+        public int getCompressed() {
+            return compressor != null ? compressor.getCompressed() : 0;
+        }
+
+        @Override
+        public File getFolder() {
+            return root;
+        }
+
+        @Override
+        public boolean isConcurrent() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (compressor != null) {
+                compressor.finish();
+                count(compressor.getBytesWritten());
+            }
+        }
+    }
+
+    /**
+     * Entries are compressed and written straight to the archive, so one
+     * entry is written at a time. Thread opening an entry holds the lock
+     * until the entry is closed.
+     */
+    private static class Archive extends DocOutput {
+
+        private final ZipOutputStream zip;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Archive(File file) throws IOException {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) {
+                dir.mkdirs();
+            }
+            zip = new ZipOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(file), BUFFER_SIZE));
+        }
+
+        @Override
+        public OutputStream open(String path) throws IOException {
+            lock.lock();
+            try {
+                zip.putNextEntry(new ZipEntry(path));
+            } catch (IOException e) {
+                lock.unlock();
+                throw e;
+            }
+            return new CountingStream(zip) {
+                @Override
+                void closeFile(OutputStream out) throws IOException {
+                    try {
+                        zip.closeEntry();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public File getFolder() {
+            return null;
+        }
+
+        @Override
+        public boolean isConcurrent() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package extdoc.jsdoc.processor;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local HTTP server of documentation. Pages are generated when they are
+ * requested for the first time and kept in LRU cache of limited size,
+ * so only pages actually viewed are rendered. Responses carry ETag and
+ * are compressed if browser accepts gzip.
+ */
+class DocServer {
+
+    /**
+     * Content of documentation by path relative to output folder
+     */
+    interface PageSource {
+
+        /**
+         * @param path path with "/" separators, without leading "/"
+         * @return generated page or null if there is no such page
+         * @throws Exception if page can not be generated
+         */
+        byte[] getPage(String path) throws Exception;
+
+        /**
+         * @param path path with "/" separators, without leading "/"
+         * @return file served as is or null if path is not a resource
+         */
+        File getFile(String path);
+    }
+
+    private static final String DIGEST = "MD5";
+
+    private static final String DEFAULT_PAGE = "index.html";
+
+    private static final String DEFAULT_CONTENT_TYPE =
+            "application/octet-stream";
+
+    private static final Map<String, String> CONTENT_TYPES =
+            new LinkedHashMap<String, String>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+        CONTENT_TYPES.put("json", "application/json; charset=UTF-8");
+        CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+        CONTENT_TYPES.put("xml", "text/xml; charset=UTF-8");
+        CONTENT_TYPES.put("txt", "text/plain; charset=UTF-8");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("swf", "application/x-shockwave-flash");
+    }
+
+    /**
+     * Generated page ready to be sent
+     */
+    private static class Page {
+        String etag;
+        byte[] content;
+        // compressed lazily, when first requested
+        byte[] gzipped;
+
+        int size() {
+            return content.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+
+    private final PageSource source;
+
+    private final long cacheSize;
+
+    private final Logger logger;
+
+    // access ordered, least recently used first
+    private final LinkedHashMap<String, Page> cache =
+            new LinkedHashMap<String, Page>(16, 0.75f, true);
+
+    private long cachedBytes = 0;
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /**
+     * @param source content of documentation
+     * @param cacheSize maximum number of bytes kept in page cache
+     * @param logger logger requests are reported to
+     */
+    public DocServer(PageSource source, long cacheSize, Logger logger) {
+        this.source = source;
+        this.cacheSize = cacheSize;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts serving
+     * @param address address to listen on, documentation is reachable
+     * from other hosts only if it is not a loopback address
+     * @param port port to listen on, 0 for any free port
+     * @param threads number of threads handling requests
+     * @throws IOException if port can not be bound
+     */
+    public void start(InetAddress address, int port, int threads)
+            throws IOException {
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Waits until server is stopped
+     * @throws InterruptedException if waiting thread is interrupted
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+        stopped.countDown();
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized Page getCached(String path) {
+        return cache.get(path);
+    }
+
+    private synchronized void putCached(String path, Page page) {
+        Page old = cache.put(path, page);
+        if (old != null) {
+            cachedBytes -= old.size();
+        }
+        cachedBytes += page.size();
+        Iterator<Page> it = cache.values().iterator();
+        while (cachedBytes > cacheSize && it.hasNext()) {
+            Page eldest = it.next();
+            if (eldest == page) {
+                // the only page does not fit, keep it anyway
+                break;
+            }
+            cachedBytes -= eldest.size();
+            it.remove();
+        }
+    }
+
+    private synchronized void compressed(String path, Page page,
+                                         byte[] gzipped) {
+        if (page.gzipped == null) {
+            page.gzipped = gzipped;
+            if (cache.get(path) == page) {
+                cachedBytes += gzipped.length;
+            }
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            return '"' + toHex(MessageDigest.getInstance(DIGEST)
+                    .digest(content)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes =
+                new ByteArrayOutputStream(content.length / 4 + 64);
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(content);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static String contentType(String path) {
+        int dot = path.lastIndexOf('.');
+        String type = dot != -1 && path.indexOf('/', dot) == -1 ?
+                CONTENT_TYPES.get(path.substring(dot + 1).toLowerCase()) :
+                null;
+        return type != null ? type : DEFAULT_CONTENT_TYPE;
+    }
+
+    private static boolean isText(String contentType) {
+        return contentType.startsWith("text/")
+                || contentType.startsWith("application/javascript")
+                || contentType.startsWith("application/json");
+    }
+
+    /**
+     * @return path relative to documentation root or null if request
+     * points outside of it
+     */
+    private static String relativePath(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path == null) {
+            return null;
+        }
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        if (path.length() == 0 || path.endsWith("/")) {
+            path += DEFAULT_PAGE;
+        }
+        for (String segment : path.split("/")) {
+            if (segment.equals("..") || segment.indexOf('\\') != -1) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+    private static void sendError(HttpExchange exchange, int code)
+            throws IOException {
+        exchange.sendResponseHeaders(code, -1);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            sendError(exchange, 405);
+            return;
+        }
+        String path = relativePath(exchange);
+        if (path == null) {
+            sendError(exchange, 404);
+            return;
+        }
+        Page page = getCached(path);
+        if (page == null) {
+            try {
+                page = load(path);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Can not generate " + path, e);
+                sendError(exchange, 500);
+                return;
+            }
+            if (page == null) {
+                logger.fine("Not found: " + path);
+                sendError(exchange, 404);
+                return;
+            }
+        }
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+        String contentType = contentType(path);
+        response.set("Content-Type", contentType);
+        response.set("ETag", page.etag);
+        response.set("Cache-Control", "no-cache");
+        if (page.etag.equals(request.getFirst("If-None-Match"))) {
+            sendError(exchange, 304);
+            return;
+        }
+        byte[] body = page.content;
+        String acceptEncoding = request.getFirst("Accept-Encoding");
+        if (isText(contentType) && acceptEncoding != null
+                && acceptEncoding.contains("gzip")) {
+            response.set("Vary", "Accept-Encoding");
+            if (page.gzipped == null) {
+                compressed(path, page, gzip(page.content));
+            }
+            body = page.gzipped;
+            response.set("Content-Encoding", "gzip");
+        }
+        if (head) {
+            response.set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static byte[] read(File file) throws IOException {
+        ByteArrayOutputStream bytes =
+                new ByteArrayOutputStream((int) file.length());
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                bytes.write(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Generates page or reads resource and puts it to cache.
+     * Generated pages take precedence over resources, the same way they
+     * overwrite resources copied to output folder.
+     * @return page or null if there is no such page
+     */
+    private Page load(String path) throws Exception {
+        long start = System.currentTimeMillis();
+        byte[] content = source.getPage(path);
+        if (content != null) {
+            logger.fine("Generated " + path + " in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } else {
+            File file = source.getFile(path);
+            if (file == null || !file.isFile() || file.isHidden()) {
+                return null;
+            }
+            content = read(file);
+        }
+        Page page = new Page();
+        page.content = content;
+        page.etag = etag(content);
+        putCached(path, page);
+        return page;
+    }
+}
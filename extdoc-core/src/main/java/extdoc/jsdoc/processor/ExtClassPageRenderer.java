@@ -0,0 +1,483 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.ClassDescr;
+import extdoc.jsdoc.docs.DocAttribute;
+import extdoc.jsdoc.docs.DocCfg;
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocCustomTag;
+import extdoc.jsdoc.docs.DocEvent;
+import extdoc.jsdoc.docs.DocMethod;
+import extdoc.jsdoc.docs.DocProperty;
+import extdoc.jsdoc.docs.Param;
+
+import javax.xml.transform.TransformerException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Built-in renderer of class pages of the bundled "ext" template. Writes
+ * the same HTML as tpl/class.xsl straight from the class model, without
+ * marshalling it to XML and transforming. Changes of class.xsl must be
+ * repeated here, or template must use the stylesheet renderer.
+ */
+class ExtClassPageRenderer implements PageRenderer {
+
+    public static final String NAME = "ext";
+
+    private static final String ENCODING = "UTF8";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final String NBSP = "&nbsp;";
+
+    // text separating items of lists, &#13; in page
+    private static final String SEPARATOR = ",\r";
+
+    private static final String EXPAND_CELL = "<td class=\"micon\">" +
+            "<a href=\"#expand\" class=\"exi\">&nbsp;</a></td>";
+
+    // line break and indent of stylesheet kept in method signatures
+    private static final String PARAMS_END = ")\n    ";
+    private static final String METHOD_TYPE = ":\n" + spaces(40);
+    private static final String EVENT_PARAMS = " :\n" + spaces(38);
+
+    private static String spaces(int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    public void render(DocClass docClass, OutputStream out)
+            throws TransformerException {
+        try {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(out, ENCODING), BUFFER_SIZE);
+            writeClass(new HtmlWriter(writer), docClass);
+            writer.flush();
+        } catch (IOException e) {
+            throw new TransformerException(
+                    "Can not save class " + docClass.className, e);
+        }
+    }
+
+    private static boolean isInherited(DocClass docClass,
+                                       DocAttribute attribute) {
+        return docClass.className != null && attribute.className != null &&
+                !docClass.className.equals(attribute.className);
+    }
+
+    private static boolean hasShort(DocAttribute attribute) {
+        return attribute.description != null &&
+                attribute.description.hasShort;
+    }
+
+    private static String shortDescr(DocAttribute attribute) {
+        return attribute.description != null ?
+                attribute.description.shortDescr : null;
+    }
+
+    private static String longDescr(DocAttribute attribute) {
+        return attribute.description != null ?
+                attribute.description.longDescr : null;
+    }
+
+    private void writeClass(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        h.markup("<div xmlns:ext=\"http://www.extjs.com\" " +
+                "class=\"body-wrap\">");
+        if (!docClass.superClasses.isEmpty()) {
+            writeSuperClasses(h, docClass);
+        }
+        h.markup("<h1>Class <a href=\"source/").uri(docClass.href)
+                .markup("\">").text(docClass.className)
+                .markup("</a></h1><table cellspacing=\"0\"><tr>" +
+                        "<td class=\"label\">Package:</td>" +
+                        "<td class=\"hd-info\">");
+        boolean global = docClass.packageName == null ||
+                docClass.packageName.length() == 0;
+        h.text(global ? "Global" : docClass.packageName);
+        h.markup("</td></tr><tr><td class=\"label\">Defined In:</td>" +
+                "<td class=\"hd-info\">");
+        boolean first = true;
+        for (String fileName : docClass.definedIn) {
+            // null items are not marshalled
+            if (fileName != null) {
+                h.text(first ? "" : SEPARATOR).text(fileName);
+                first = false;
+            }
+        }
+        h.markup("</td></tr><tr><td class=\"label\">Class:</td>" +
+                "<td class=\"hd-info\"><a href=\"source/")
+                .uri(docClass.href).markup("\">")
+                .text(docClass.shortClassName).markup("</a></td></tr>");
+        if (!docClass.subClasses.isEmpty()) {
+            writeSubClasses(h, docClass);
+        }
+        h.markup("<tr><td class=\"label\">Extends:</td>" +
+                "<td class=\"hd-info\">");
+        if (!docClass.superClasses.isEmpty()) {
+            ClassDescr parent = docClass.superClasses.get(
+                    docClass.superClasses.size() - 1);
+            h.markup("<a href=\"output/").uri(parent.className)
+                    .markup(".html\" ext:cls=\"").attr(parent.className)
+                    .markup("\" ext:member=\"\">")
+                    .text(parent.shortClassName).markup("</a>");
+        } else {
+            h.markup("Object");
+        }
+        h.markup("</td></tr>");
+        writeCustomTagRows(h, docClass.customTags);
+        h.markup("</table><div class=\"description\">")
+                .html(docClass.description);
+        if (docClass.singleton) {
+            h.markup("<br><br><i>This class is a singleton and cannot be " +
+                    "created directly.</i>");
+        }
+        h.markup("</div><div class=\"hr\"></div>");
+        writeConfigs(h, docClass);
+        writeProperties(h, docClass);
+        writeMethods(h, docClass);
+        writeEvents(h, docClass);
+        h.markup("</div>");
+    }
+
+    private void writeSuperClasses(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        h.markup("<div class=\"inheritance res-block\">" +
+                "<pre class=\"res-block-inner\">");
+        int position = 0;
+        for (ClassDescr superClass : docClass.superClasses) {
+            position++;
+            h.markup("<a href=\"output/").uri(superClass.className)
+                    .markup(".html\" ext:member=\"\" ext:cls=\"")
+                    .attr(superClass.className).markup("\">")
+                    .text(superClass.shortClassName).markup("</a>&#13;");
+            for (int i = 0; i < position; i++) {
+                h.markup(NBSP).markup(NBSP);
+            }
+            h.markup("<img src=\"resources/elbow-end.gif\">");
+        }
+        h.text(docClass.shortClassName).markup("</pre></div>");
+    }
+
+    private void writeSubClasses(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        h.markup("<tr><td class=\"label\">Subclasses:</td>" +
+                "<td class=\"hd-info\">");
+        List<ClassDescr> subClasses = docClass.subClasses;
+        for (int i = 0; i < subClasses.size(); i++) {
+            ClassDescr subClass = subClasses.get(i);
+            h.markup("<a href=\"output/").uri(subClass.className)
+                    .markup(".html\" ext:cls=\"").attr(subClass.className)
+                    .markup("\">").text(subClass.shortClassName)
+                    .markup("</a>");
+            if (i != subClasses.size() - 1) {
+                h.text(SEPARATOR);
+            }
+        }
+        h.markup("</td></tr>");
+    }
+
+    private void writeCustomTagRows(HtmlWriter h, List<DocCustomTag> tags)
+            throws IOException {
+        for (DocCustomTag tag : tags) {
+            h.markup("<tr><td class=\"label\">").text(tag.title)
+                    .markup(":</td><td class=\"hd-info\">").html(tag.value)
+                    .markup("</td></tr>");
+        }
+    }
+
+    private void writeCustomTags(HtmlWriter h, List<DocCustomTag> tags)
+            throws IOException {
+        if (!tags.isEmpty()) {
+            h.markup("<table>");
+            writeCustomTagRows(h, tags);
+            h.markup("</table>");
+        }
+    }
+
+    private void writeTableStart(HtmlWriter h, String header)
+            throws IOException {
+        h.markup("<table cellspacing=\"0\" class=\"member-table\"><tbody>" +
+                "<tr><th colspan=\"2\" class=\"sig-header\">").markup(header)
+                .markup("</th><th class=\"msource-header\">Defined By</th>" +
+                        "</tr>");
+    }
+
+    private void writeAnchor(HtmlWriter h, String className, String suffix)
+            throws IOException {
+        h.markup("<a id=\"").attr(className).markup("-").attr(suffix)
+                .markup("\"></a>");
+    }
+
+    /**
+     * Writes anchor and linked name of member
+     */
+    private void writeMemberName(HtmlWriter h, DocAttribute attribute)
+            throws IOException {
+        writeAnchor(h, attribute.className, attribute.name);
+        h.markup("<b><a href=\"source/").uri(attribute.href).markup("\">")
+                .text(attribute.name).markup("</a></b>");
+    }
+
+    /**
+     * Writes right column with class member is defined by
+     */
+    private void writeSource(HtmlWriter h, String className,
+                             String shortClassName, String name,
+                             boolean inherited) throws IOException {
+        h.markup("<td class=\"msource\">");
+        if (inherited) {
+            h.markup("<a href=\"output/").uri(className).markup(".html#")
+                    .uri(name).markup("\" ext:member=\"#").attr(name)
+                    .markup("\" ext:cls=\"").attr(className).markup("\">")
+                    .text(shortClassName).markup("</a>");
+        } else {
+            h.text(shortClassName);
+        }
+        h.markup("</td>");
+    }
+
+    private void writeSource(HtmlWriter h, DocAttribute attribute,
+                             boolean inherited) throws IOException {
+        writeSource(h, attribute.className, attribute.shortClassName,
+                attribute.name, inherited);
+    }
+
+    /**
+     * Writes row of config or property
+     */
+    private void writeField(HtmlWriter h, DocClass docClass,
+                            DocAttribute attribute, String rowClass,
+                            String type) throws IOException {
+        boolean inherited = isInherited(docClass, attribute);
+        boolean expandable = hasShort(attribute);
+        h.markup("<tr class=\"").markup(rowClass).markup(" ")
+                .markup(expandable ? "expandable" : "").markup(" ")
+                .markup(inherited ? "inherited" : "").markup("\">")
+                .markup(EXPAND_CELL).markup("<td class=\"sig\">");
+        writeMemberName(h, attribute);
+        h.markup(" : ").text(type).markup("<div class=\"mdesc\">");
+        if (expandable) {
+            h.markup("<div class=\"short\">").text(shortDescr(attribute))
+                    .markup("</div><div class=\"long\">")
+                    .html(longDescr(attribute));
+            writeCustomTags(h, attribute.customTags);
+            h.markup("</div>");
+        } else {
+            h.html(longDescr(attribute));
+            writeCustomTags(h, attribute.customTags);
+        }
+        h.markup("</div></td>");
+        writeSource(h, attribute, inherited);
+        h.markup("</tr>");
+    }
+
+    private void writeConfigs(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        if (docClass.cfgs.isEmpty()) {
+            return;
+        }
+        writeAnchor(h, docClass.className, "configs");
+        h.markup("<h2>Config Options</h2>");
+        writeTableStart(h, "Config Options");
+        for (DocCfg cfg : docClass.cfgs) {
+            writeField(h, docClass, cfg, "config-row", cfg.type);
+        }
+        h.markup("</tbody></table>");
+    }
+
+    private void writeProperties(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        writeAnchor(h, docClass.className, "props");
+        h.markup("<h2>Public Properties</h2>");
+        if (docClass.properties.isEmpty()) {
+            h.markup("<div class=\"no-members\">This class has no public " +
+                    "properties.</div>");
+            return;
+        }
+        writeTableStart(h, "Property");
+        for (DocProperty property : docClass.properties) {
+            writeField(h, docClass, property, "property-row", property.type);
+        }
+        h.markup("</tbody></table>");
+    }
+
+    /**
+     * Writes parameters in short, ex. "( String a, [Number b] )"
+     */
+    private void writeParams(HtmlWriter h, List<Param> params)
+            throws IOException {
+        h.markup("(");
+        if (!params.isEmpty()) {
+            h.markup(NBSP);
+        }
+        for (int i = 0; i < params.size(); i++) {
+            Param param = params.get(i);
+            if (param.optional) {
+                h.markup("<span title=\"Optional\" class=\"optional\">[");
+            }
+            h.markup("<code>").text(param.type).markup(NBSP)
+                    .text(param.name).markup("</code>");
+            if (param.optional) {
+                h.markup("]</span>");
+            }
+            if (i != params.size() - 1) {
+                h.markup(",").markup(NBSP);
+            }
+        }
+        if (!params.isEmpty()) {
+            h.markup(NBSP);
+        }
+        h.markup(PARAMS_END);
+    }
+
+    /**
+     * Writes list of parameters with their descriptions and return type
+     * @param returnType null for void
+     */
+    private void writeParamDetails(HtmlWriter h, List<Param> params,
+                                   String returnType,
+                                   String returnDescription)
+            throws IOException {
+        h.markup("<div class=\"mdetail-params\"><strong>Parameters:</strong>" +
+                "<ul>");
+        writeParamItems(h, params);
+        h.markup("</ul><strong>Returns:</strong><ul><li>");
+        if (returnType != null) {
+            h.markup("<code>").text(returnType)
+                    .markup("</code><div class=\"sub-desc\">")
+                    .text(returnDescription).markup("</div>");
+        } else {
+            h.markup("void");
+        }
+        h.markup("</li></ul></div>");
+    }
+
+    private void writeParamItems(HtmlWriter h, List<Param> params)
+            throws IOException {
+        if (params.isEmpty()) {
+            h.markup("<li>None.</li>");
+        }
+        for (Param param : params) {
+            h.markup("<li><code>").text(param.name).markup("</code> : ")
+                    .text(param.type).markup("<div class=\"sub-desc\">")
+                    .html(param.description).markup("</div></li>");
+        }
+    }
+
+    private void writeConstructor(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        h.markup("<tr class=\"method-row expandable\">").markup(EXPAND_CELL)
+                .markup("<td class=\"sig\">");
+        writeAnchor(h, docClass.className, docClass.shortClassName);
+        h.markup("<b><a href=\"source/").uri(docClass.href).markup("\">")
+                .text(docClass.shortClassName).markup("</a></b>");
+        writeParams(h, docClass.params);
+        h.markup("<div class=\"mdesc\"><div class=\"short\">");
+        if (docClass.constructorDescription != null) {
+            h.text(docClass.constructorDescription.shortDescr);
+        }
+        h.markup("</div><div class=\"long\">");
+        if (docClass.constructorDescription != null) {
+            h.html(docClass.constructorDescription.longDescr);
+        }
+        writeParamDetails(h, docClass.params, null, null);
+        writeCustomTags(h, docClass.customTags);
+        h.markup("</div></div></td>");
+        writeSource(h, docClass.className, docClass.shortClassName, null,
+                false);
+        h.markup("</tr>");
+    }
+
+    private void writeStatic(HtmlWriter h, DocAttribute attribute)
+            throws IOException {
+        if (attribute.isStatic) {
+            h.markup("&lt;static&gt;").markup(NBSP);
+        }
+    }
+
+    private void writeMethods(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        writeAnchor(h, docClass.className, "methods");
+        h.markup("<h2>Public Methods</h2>");
+        if (docClass.methods.isEmpty()) {
+            h.markup("<div class=\"no-members\">This class has no public " +
+                    "methods.</div>");
+            return;
+        }
+        writeTableStart(h, "Method");
+        if (docClass.hasConstructor) {
+            writeConstructor(h, docClass);
+        }
+        for (DocMethod method : docClass.methods) {
+            boolean inherited = isInherited(docClass, method);
+            h.markup("<tr class=\"method-row expandable ")
+                    .markup(inherited ? "inherited" : "").markup("\">")
+                    .markup(EXPAND_CELL).markup("<td class=\"sig\">");
+            writeMemberName(h, method);
+            writeParams(h, method.params);
+            h.markup(METHOD_TYPE);
+            if (method.returnType != null) {
+                h.text(method.returnType);
+            } else {
+                h.markup("void");
+            }
+            h.markup("<div class=\"mdesc\">");
+            writeCustomTags(h, method.customTags);
+            h.markup("<div class=\"short\">");
+            writeStatic(h, method);
+            h.text(shortDescr(method)).markup("</div><div class=\"long\">");
+            writeStatic(h, method);
+            h.html(longDescr(method));
+            writeParamDetails(h, method.params, method.returnType,
+                    method.returnDescription);
+            h.markup("</div></div></td>");
+            writeSource(h, method, inherited);
+            h.markup("</tr>");
+        }
+        h.markup("</tbody></table>");
+    }
+
+    private void writeEvents(HtmlWriter h, DocClass docClass)
+            throws IOException {
+        writeAnchor(h, docClass.className, "events");
+        h.markup("<h2>Public Events</h2>");
+        if (docClass.events.isEmpty()) {
+            h.markup("<div class=\"no-members\">This class has no public " +
+                    "events.</div>");
+            return;
+        }
+        writeTableStart(h, "Event");
+        for (DocEvent event : docClass.events) {
+            boolean inherited = isInherited(docClass, event);
+            h.markup("<tr class=\"method-row expandable ")
+                    .markup(inherited ? "inherited" : "").markup("\">")
+                    .markup(EXPAND_CELL).markup("<td class=\"sig\">");
+            writeMemberName(h, event);
+            h.markup(EVENT_PARAMS);
+            writeParams(h, event.params);
+            h.markup("<div class=\"mdesc\"><div class=\"short\">")
+                    .text(shortDescr(event))
+                    .markup("</div><div class=\"long\">")
+                    .html(longDescr(event))
+                    .markup("<div class=\"mdetail-params\">" +
+                            "<strong style=\"font-weight: normal;\">" +
+                            "Listeners will be called with the following " +
+                            "arguments:</strong><ul>");
+            writeParamItems(h, event.params);
+            h.markup("</ul></div>");
+            writeCustomTags(h, event.customTags);
+            h.markup("</div></div></td>");
+            writeSource(h, event, inherited);
+            h.markup("</tr>");
+        }
+        h.markup("</tbody></table>");
+    }
+}
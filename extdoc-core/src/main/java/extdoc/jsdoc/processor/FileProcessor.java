@@ -1,5 +1,7 @@
 package extdoc.jsdoc.processor;
 
+import java.util.logging.Handler;
+
 /**
  * Created by IntelliJ IDEA.
  * User: oxymoron
@@ -13,7 +15,46 @@ public interface FileProcessor {
 
     void setQuiet();
 
+    /**
+     * Replaces console handler, messages are sent to the given handler
+     */
+    void setLogHandler(Handler handler);
+
+    void setThreads(int threads);
+
+    void setCacheDir(String cacheDir);
+
+    void setIncremental(boolean incremental);
+
+    void setDomRender(boolean domRender);
+
+    void setStatsFile(String statsFile);
+
+    void setLinkResources(boolean linkResources);
+
+    void setGzip(boolean gzip);
+
+    /**
+     * @param bindAddress address serve() listens on, null for loopback
+     * address, so documentation is reachable only from this host
+     */
+    void setBindAddress(String bindAddress);
+
     void process(String fileName, String[] extraSrc);
 
     void saveToFolder(String folderName, String templateFileName);
+
+    /**
+     * Processes sources and saves documentation, same as process() and
+     * saveToFolder()
+     * @return outcome of this build
+     */
+    BuildResult build(String fileName, String[] extraSrc,
+                      String folderName, String templateFileName);
+
+    void watch(String fileName, String[] extraSrc,
+               String folderName, String templateFileName);
+
+    void serve(String fileName, String[] extraSrc,
+               String templateFileName, int port);
 }
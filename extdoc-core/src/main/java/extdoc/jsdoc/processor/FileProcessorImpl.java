@@ -3,6 +3,8 @@ package extdoc.jsdoc.processor;
 import extdoc.jsdoc.docs.*;
 import extdoc.jsdoc.tags.*;
 import extdoc.jsdoc.tags.impl.Comment;
+import extdoc.jsdoc.tags.impl.CommentType;
+import extdoc.jsdoc.tags.impl.KnownTag;
 import extdoc.jsdoc.tplschema.*;
 import extdoc.jsdoc.util.StringUtils;
 import org.w3c.dom.Document;
@@ -10,20 +12,27 @@ import org.w3c.dom.Document;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 import java.io.*;
+import java.net.InetAddress;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.*;
 import java.util.regex.Pattern;
 
@@ -38,28 +47,64 @@ public class FileProcessorImpl implements FileProcessor {
 
     private final Logger logger;
 
-    private final Handler logHandler;
+    private Handler logHandler;
 
     private Context context = new Context();
 
+    private final SourceParser sourceParser = new SourceParser();
+
+    private int threads = 1;
+
+    private String cacheDir = null;
+
+    private ParseCache parseCache = null;
+
+    // compiled stylesheets, kept between runs in watch mode
+    private TemplatesCache templatesCache = null;
+
+    private boolean incremental = false;
+
+    private boolean domRender = false;
+
+    private boolean watching = false;
+
+    private boolean linkResources = false;
+
+    // gzip compressed copies of text files are written if set
+    private boolean gzip = false;
+
+    // report of the last build is written to this file if set
+    private String statsFile = null;
+
+    // documentation is served on loopback address if not set
+    private String bindAddress = null;
+
+    private BuildStats stats = new BuildStats();
+
+    // errors of the current build
+    private final List<Throwable> errors = new ArrayList<Throwable>();
+
+    // folders and files sources were read from
+    private final List<File> sourceRoots = new ArrayList<File>();
+
+    private final Map<String, JAXBContext> jaxbContexts =
+            new HashMap<String, JAXBContext>();
+
     private final static String OUT_FILE_EXTENSION = "html";
     private final static boolean GENERATE_DEBUG_XML = false;
-    private final static String COMPONENT_NAME = "Ext.Component";
     private final static String DEFAULT_TYPE = "Object";
 
     private static final String START_LINK = "{@link";    
 
-    private static enum LinkStates {READ, LINK}
-
-    private static final String
-        MEMBER_REFERENCE_TPL =
+    private static final LinkTemplate
+        MEMBER_REFERENCE_TPL = new LinkTemplate(
             "<a href=\"output/{0}.html#{0}-{1}\" " +
-                    "ext:member=\"{1}\" ext:cls=\"{0}\">{2}</a>";
+                    "ext:member=\"{1}\" ext:cls=\"{0}\">{2}</a>");
 
-    private static final String
-        CLASS_REFERENCE_TPL =
+    private static final LinkTemplate
+        CLASS_REFERENCE_TPL = new LinkTemplate(
             "<a href=\"output/{0}.html\" " +
-                    "ext:cls=\"{0}\">{1}</a>";
+                    "ext:cls=\"{0}\">{1}</a>");
 
     private static final int DESCR_MAX_LENGTH = 117;
 
@@ -68,47 +113,116 @@ public class FileProcessorImpl implements FileProcessor {
 
     private static final String ENCODING = "UTF8";
 
+    private static final String PARSE_CACHE_FILE = "parse.cache";
+
+    private static final String TEMPLATES_CACHE_DIR = "templates";
+
+    private static final String MANIFEST_FILE = ".extdoc-manifest";
+
+    private static final long SERVE_CACHE_SIZE = 64L * 1024 * 1024;
+
+    private static final int MIN_SERVE_THREADS = 4;
+
+    private static final String RESOURCE_MANIFEST_FILE = ".extdoc-resources";
+
+    // copy is bound by I/O, so it uses more threads than parsing
+    private static final int MIN_COPY_THREADS = 4;
+
     public FileProcessorImpl() {
-        logger = Logger.getLogger("extdoc.jsdoc.processor");
+        // every processor has its own logger, so processors running in
+        // the same JVM do not share handlers and levels
+        logger = Logger.getAnonymousLogger();
         logger.setUseParentHandlers(false);
         logHandler = new ConsoleHandler();
         logHandler.setFormatter(new Formatter() {
             public String format(LogRecord record) {
-                return record.getMessage() + "\n";
+                if (record.getThrown() == null) {
+                    return record.getMessage() + "\n";
+                }
+                StringWriter trace = new StringWriter();
+                record.getThrown().printStackTrace(new PrintWriter(trace));
+                return record.getMessage() + "\n" + trace;
             }
         });
         logger.addHandler(logHandler);
     }
 
+    /**
+     * @return model built by the last process() call
+     */
+    Context getContext() {
+        return context;
+    }
+
     public void setVerbose(){
         logger.setLevel(Level.FINE);
         logHandler.setLevel(Level.FINE);
     }
 
+    // errors are still reported
     public void setQuiet(){
-        logger.setLevel(Level.OFF);
+        logger.setLevel(Level.SEVERE);
+    }
+
+    public synchronized void setLogHandler(Handler handler){
+        logger.removeHandler(logHandler);
+        logHandler = handler;
+        logger.addHandler(handler);
+    }
+
+    public void setThreads(int threads){
+        this.threads = threads;
+    }
+
+    public void setCacheDir(String cacheDir){
+        this.cacheDir = cacheDir;
+        templatesCache = null;
+    }
+
+    public void setIncremental(boolean incremental){
+        this.incremental = incremental;
+    }
+
+    public void setDomRender(boolean domRender){
+        this.domRender = domRender;
+    }
+
+    public void setLinkResources(boolean linkResources){
+        this.linkResources = linkResources;
+    }
+
+    public void setGzip(boolean gzip){
+        this.gzip = gzip;
+    }
+
+    public void setStatsFile(String statsFile){
+        this.statsFile = statsFile;
+    }
+
+    public void setBindAddress(String bindAddress){
+        this.bindAddress = bindAddress;
     }
 
     /**
      * Processes link content (between "{" and "}")
      * @param text Content, ex: "Ext.DomQuery#select"
-     * @return Array of 2 Strings: long and short versions
+     * @param html long version is appended here
+     * @param plain short version is appended here
      */
-    private String[] processLink(String text) {
+    private void processLink(String text, StringBuilder html,
+                             PlainTextCollector plain) {
          StringUtils.ClsAttrName res = StringUtils.processLink(text);
-         String longText, shortText;
+         String name;
          if (res.attr.equals("")) {
              // class reference
              String cls = res.cls;
-             String name = res.name.equals("") ? res.cls : res.name;
-             longText = MessageFormat.format(CLASS_REFERENCE_TPL, cls, name);
-             shortText = name;
+             name = res.name.equals("") ? res.cls : res.name;
+             CLASS_REFERENCE_TPL.appendTo(html, cls, name);
          } else {
              // attribute reference
              String cls = res.cls.equals("") ? context.getCurrentClass().className
                      : res.cls;
              String attr = res.attr;
-             String name;
              if (res.name.equals("")) {
                  if (res.cls.equals("")) {
                      name = res.attr;
@@ -118,11 +232,9 @@ public class FileProcessorImpl implements FileProcessor {
              } else {
                  name = res.name;
              }
-             longText = MessageFormat.format(MEMBER_REFERENCE_TPL, cls, attr,
-                     name);
-             shortText = name;
+             MEMBER_REFERENCE_TPL.appendTo(html, cls, attr, name);
          }
-         return new String[] { longText, shortText };
+         plain.append(name);
      }
 
 
@@ -133,7 +245,9 @@ public class FileProcessorImpl implements FileProcessor {
 
     /**
      * Replaces inline tag @link to actual html links and returns shot and/or
-     * long versions.
+     * long versions. Both versions are built in one pass, short version
+     * is collected only up to its maximum length.
+     * Character following "{@link" is skipped.
      *
      * @param cnt
      *            description content
@@ -141,52 +255,39 @@ public class FileProcessorImpl implements FileProcessor {
      *            forces to generate short version for Methods and events
      * @return short and long versions
      */
-    private Description inlineLinks(String cnt, boolean alwaysGenerateShort) {
+    Description inlineLinks(String cnt, boolean alwaysGenerateShort) {
         if (cnt == null) {
             return null;
         }
         String content = StringUtils.highlightCode(cnt);
-        LinkStates state = LinkStates.READ;
-        StringBuilder sbHtml = new StringBuilder();
-        StringBuilder sbText = new StringBuilder();
-        StringBuilder buffer = new StringBuilder();
-        for (int i = 0; i < content.length(); i++) {
-            char ch = content.charAt(i);
-            switch (state) {
-            case READ:
-                if (StringUtils.endsWith(buffer, START_LINK)) {
-                    String substr = buffer.substring(0, buffer.length()
-                            - START_LINK.length());
-                    sbHtml.append(substr);
-                    sbText.append(substr);
-                    buffer.setLength(0);
-                    state = LinkStates.LINK;
-                    break;
-                }
-                buffer.append(ch);
+        int len = content.length();
+        StringBuilder sbHtml = new StringBuilder(len);
+        PlainTextCollector plain = new PlainTextCollector(DESCR_MAX_LENGTH);
+        int last = 0;
+        while (true) {
+            int start = content.indexOf(START_LINK, last);
+            // link starts only if followed by some character
+            if (start == -1 || start + START_LINK.length() >= len) {
                 break;
-            case LINK:
-                if (ch == '}') {
-                    String[] str = processLink(buffer.toString());
-                    sbHtml.append(str[0]);
-                    sbText.append(str[1]);
-                    buffer.setLength(0);
-                    state = LinkStates.READ;
-                    break;
-                }
-                buffer.append(ch);
+            }
+            sbHtml.append(content, last, start);
+            plain.append(content, last, start);
+            last = start + START_LINK.length() + 1;
+            int end = content.indexOf('}', last);
+            if (end == -1) {
                 break;
             }
+            processLink(content.substring(last, end), sbHtml, plain);
+            last = end + 1;
         }
 
-
         // append remaining
-        sbHtml.append(buffer);
-        sbText.append(buffer);
+        sbHtml.append(content, last, len);
+        plain.append(content, last, len);
 
-        String sbString = sbText.toString().replaceAll("<\\S*?>","");        
+        String sbString = plain.getText();
 
-               Description description = new Description();
+        Description description = new Description();
         description.longDescr = sbHtml.toString();
         if (alwaysGenerateShort) {
             description.hasShort = true;
@@ -250,12 +351,12 @@ public class FileProcessorImpl implements FileProcessor {
 
         DocClass cls = new DocClass();
         
-        ClassTag classTag = comment.tag("@class");
-        Tag singletonTag = comment.tag("@singleton");
-        ExtendsTag extendsTag = comment.tag("@extends");
-        Tag constructorTag = comment.tag("@constructor");
-        List<ParamTag> paramTags = comment.tags("@param");
-        Tag namespaceTag = comment.tag("@namespace");
+        ClassTag classTag = comment.tag(KnownTag.CLASS);
+        Tag singletonTag = comment.tag(KnownTag.SINGLETON);
+        ExtendsTag extendsTag = comment.tag(KnownTag.EXTENDS);
+        Tag constructorTag = comment.tag(KnownTag.CONSTRUCTOR);
+        List<ParamTag> paramTags = comment.tags(KnownTag.PARAM);
+        Tag namespaceTag = comment.tag(KnownTag.NAMESPACE);
 
         cls.className = classTag.getClassName();
         boolean found = false;
@@ -292,7 +393,7 @@ public class FileProcessorImpl implements FileProcessor {
         }       
 
         // Skip private classes
-        if (comment.hasTag("@private") || comment.hasTag("@ignore")) {
+        if (comment.hasTag(KnownTag.PRIVATE) || comment.hasTag(KnownTag.IGNORE)) {
             cls.hide = true;
         }
 
@@ -317,7 +418,7 @@ public class FileProcessorImpl implements FileProcessor {
         }
         // Process cfg declared inside class definition
         // goes after global className set
-        List<CfgTag> innerCfgs = comment.tags("@cfg");
+        List<CfgTag> innerCfgs = comment.tags(KnownTag.CFG);
         for (CfgTag innerCfg : innerCfgs) {
             DocCfg cfg = getDocCfg(innerCfg);
             context.addDocCfg(cfg);
@@ -350,11 +451,11 @@ public class FileProcessorImpl implements FileProcessor {
      */
     private void processCfg(Comment comment){
         // Skip private
-        if (comment.hasTag("@private")
-                || comment.hasTag("@ignore")) return;
-        CfgTag tag = comment.tag("@cfg");
+        if (comment.hasTag(KnownTag.PRIVATE)
+                || comment.hasTag(KnownTag.IGNORE)) return;
+        CfgTag tag = comment.tag(KnownTag.CFG);
         DocCfg cfg = getDocCfg(tag);
-        cfg.hide = comment.tag("@hide")!=null;
+        cfg.hide = comment.tag(KnownTag.HIDE)!=null;
         injectCustomTags(cfg, comment);
         context.addDocCfg(cfg);
     }
@@ -366,15 +467,15 @@ public class FileProcessorImpl implements FileProcessor {
      */
     private void processProperty(Comment comment,String extraLine){
         // Skip private
-        if (comment.hasTag("@private") || comment.hasTag("@ignore")) {
+        if (comment.hasTag(KnownTag.PRIVATE) || comment.hasTag(KnownTag.IGNORE)) {
             return;
         }
 
         
         DocProperty property = new DocProperty();
 
-        PropertyTag propertyTag = comment.tag("@property");
-        TypeTag typeTag = comment.tag("@type");
+        PropertyTag propertyTag = comment.tag(KnownTag.PROPERTY);
+        TypeTag typeTag = comment.tag(KnownTag.TYPE);
 
         property.name = StringUtils.separateByLastDot(extraLine)[1];
         String description = comment.getDescription();
@@ -392,7 +493,7 @@ public class FileProcessorImpl implements FileProcessor {
         property.description = inlineLinks(description);
         property.className = context.getCurrentClass().className;
         property.shortClassName = context.getCurrentClass().shortClassName;
-        property.hide = comment.tag("@hide")!=null;
+        property.hide = comment.tag(KnownTag.HIDE)!=null;
         injectCustomTags(property, comment);
         context.addDocProperty(property);
     }
@@ -404,17 +505,17 @@ public class FileProcessorImpl implements FileProcessor {
      */
     private void processMethod(Comment comment, String extraLine){
         // Skip private
-        if (comment.hasTag("@private") || comment.hasTag("@ignore")) {
+        if (comment.hasTag(KnownTag.PRIVATE) || comment.hasTag(KnownTag.IGNORE)) {
             return;
         }
 
         DocMethod method = new DocMethod();
 
-        Tag methodTag = comment.tag("@method");
-        Tag staticTag = comment.tag("@static");
-        List<ParamTag> paramTags = comment.tags("@param");
-        ReturnTag returnTag = comment.tag("@return");
-        MemberTag memberTag = comment.tag("@member");
+        Tag methodTag = comment.tag(KnownTag.METHOD);
+        Tag staticTag = comment.tag(KnownTag.STATIC);
+        List<ParamTag> paramTags = comment.tags(KnownTag.PARAM);
+        ReturnTag returnTag = comment.tag(KnownTag.RETURN);
+        MemberTag memberTag = comment.tag(KnownTag.MEMBER);
 
         // should be first because @member may redefine class
         DocClass doc = context.getCurrentClass();
@@ -452,7 +553,7 @@ public class FileProcessorImpl implements FileProcessor {
             method.returnDescription =returnTag.getReturnDescription();
         }
         readParams(paramTags, method.params);
-        method.hide = comment.tag("@hide")!=null;
+        method.hide = comment.tag(KnownTag.HIDE)!=null;
         injectCustomTags(method, comment);
         context.addDocMethod(method);
     }
@@ -463,45 +564,31 @@ public class FileProcessorImpl implements FileProcessor {
      */
     private void processEvent(Comment comment){
         // Skip private
-        if (comment.hasTag("@private")  || comment.hasTag("@ignore")) {
+        if (comment.hasTag(KnownTag.PRIVATE)  || comment.hasTag(KnownTag.IGNORE)) {
             return;
         }
 
         DocEvent event = new DocEvent();
-        EventTag eventTag = comment.tag("@event");
-        List<ParamTag> paramTags = comment.tags("@param");
+        EventTag eventTag = comment.tag(KnownTag.EVENT);
+        List<ParamTag> paramTags = comment.tags(KnownTag.PARAM);
         event.name = eventTag.getEventName();
         event.description = inlineLinks(eventTag.getEventDescription(), true);
         readParams(paramTags, event.params);
         event.className = context.getCurrentClass().className;
         event.shortClassName = context.getCurrentClass().shortClassName;
-        event.hide = comment.tag("@hide")!=null;
+        event.hide = comment.tag(KnownTag.HIDE)!=null;
         injectCustomTags(event, comment);
         context.addDocEvent(event);
     }
 
-    enum CommentType{
-        CLASS, CFG, PROPERTY, METHOD, EVENT
-    }
-
     static CommentType resolveCommentType(Comment comment){
         return resolveCommentType(comment, "", "");
     }
 
     static CommentType resolveCommentType(Comment comment, String extraLine, String extra2Line){
-        if(comment.hasTag("@class")){
-            return CommentType.CLASS;
-        }else if(comment.hasTag("@event")){
-            return CommentType.EVENT;
-        }else if(comment.hasTag("@cfg")){
-            return CommentType.CFG;
-        }else if(comment.hasTag("@param")
-                || comment.hasTag("@return")
-                || comment.hasTag("@method")){
-            return CommentType.METHOD;
-        }else if (comment.hasTag("@type")
-                || comment.hasTag("@property")){
-            return CommentType.PROPERTY;                    
+        // type is decided by tags while comment is parsed
+        if(comment.getType()!=null){
+            return comment.getType();
         }else if(extra2Line.equals("function")){
             return CommentType.METHOD;
         }else{
@@ -512,13 +599,14 @@ public class FileProcessorImpl implements FileProcessor {
 
     /**
      *  Determine type of comment and process it
-     * @param content text inside / ** and * /
-     * @param extraLine first word form the line after comment 
+     * @param parsedComment comment with the code following it
      */
-    private void processComment(String content, String extraLine, String extra2Line){
-        if (content==null) return;
-        Comment comment = new Comment(content);
-        switch (resolveCommentType(comment, extraLine, extra2Line)){
+    private void processComment(ParsedComment parsedComment){
+        Comment comment = parsedComment.comment;
+        String extraLine = parsedComment.extraLine;
+        context.lastCommentPosition = parsedComment.position;
+        switch (resolveCommentType(comment, extraLine,
+                parsedComment.extra2Line)){
             case CLASS:
                 processClass(comment);
                 break;
@@ -537,209 +625,111 @@ public class FileProcessorImpl implements FileProcessor {
         }
     }
 
-    private enum State {CODE, COMMENT}
-    private enum ExtraState {SKIP, SPACE, READ, SPACE2, READ2}
-
-    private static final String START_COMMENT = "/**";
-    private static final String END_COMMENT = "*/";
-
-
     /**
-     * Checks if char is white space in terms of extra line of code after
-     * comments
-     * @param ch character
-     * @return true if space or new line or * or / or ' etc...
-     */
-    private boolean isWhite(char ch){
-        return !Character.isLetterOrDigit(ch) && ch!='.' && ch!='_';
-    }
-    /**
-     * Processes one file with state machine
+     * Adds comments of parsed file to context. Files must be merged in the
+     * same order they were found, as comments without class definition
+     * belong to the last class processed.
      *
-     * @param fileName
-     *            Source Code file name
+     * @param parsedFile parsed source file
      */
-    private void processFile(String fileName) {
-        try {
-            File file = new File(new File(fileName).getAbsolutePath());
-            context.setCurrentFile(file);
-            context.position = 0;
-            logger.fine(MessageFormat.format("Processing: {0}", context
-                    .getCurrentFile().fileName));
-            BufferedReader reader =
-                    new BufferedReader(new InputStreamReader
-                            (new FileInputStream(file), ENCODING));
-            int numRead;
-            State state = State.CODE;
-            ExtraState extraState = ExtraState.SKIP;
-            StringBuilder buffer = new StringBuilder();
-            StringBuilder extraBuffer = new StringBuilder();
-            StringBuilder extra2Buffer = new StringBuilder();
-            String comment = null;
-            char ch;
-            while ((numRead = reader.read()) != -1) {
-                context.position++;
-                ch = (char) numRead;
-                buffer.append(ch);
-                switch (state) {
-                case CODE:
-                    switch (extraState) {
-                    case SKIP:
-                        break;
-                    case SPACE:
-                        if (isWhite(ch)) {
-                            break;
-                        }
-                        extraState = ExtraState.READ;
-                        /* fall through */
-                    case READ:
-                        if (isWhite(ch)) {
-                            extraState = ExtraState.SPACE2;
-                            break;
-                        }
-                        extraBuffer.append(ch);
-                        break;
-                    case SPACE2:
-                        if (isWhite(ch)) {
-                            break;
-                        }
-                        extraState = ExtraState.READ2;
-                        /* fall through */
-                    case READ2:
-                        if (isWhite(ch)) {
-                            extraState = ExtraState.SKIP;
-                            break;
-                         }
-                         extra2Buffer.append(ch);
-                         break;
-                     }
-                     if (StringUtils.endsWith(buffer, START_COMMENT)) {
-                         if (comment != null) {
-                             // comment is null before the first comment starts
-                             // so we do not process it
-                             processComment(comment, extraBuffer.toString(),
-                                     extra2Buffer.toString());
-                         }
-                         context.lastCommentPosition = context.position - 2;
-                         extraBuffer.setLength(0);
-                         extra2Buffer.setLength(0);
-                         buffer.setLength(0);
-                         state = State.COMMENT;
-                     }
-                     break;
-                 case COMMENT:
-                     if (StringUtils.endsWith(buffer, END_COMMENT)) {
-                         comment = buffer.substring(0, buffer.length()
-                                 - END_COMMENT.length());
-                         buffer.setLength(0);
-                         state = State.CODE;
-                         extraState = ExtraState.SPACE;
-                     }
-                     break;
-                 }
-             }
-             processComment(comment, extraBuffer.toString(), extra2Buffer
-                     .toString());
-             reader.close();
-         } catch (IOException e) {
-             e.printStackTrace();
-         }
+    private void mergeFile(ParsedFile parsedFile) {
+        context.setCurrentFile(parsedFile.file);
+        context.getCurrentFile().hash = parsedFile.hash;
+        logger.fine(MessageFormat.format("Processing: {0}", context
+                .getCurrentFile().fileName));
+        for (ParsedComment parsedComment : parsedFile.comments) {
+            processComment(parsedComment);
+            stats.tagsFound(parsedComment.comment);
+        }
     }
 
-    private void createClassHierarchy(){
-        for(DocClass docClass: context.getClasses()){
-            for(DocClass cls: context.getClasses()){
-                if(docClass.className.equals(cls.parentClass)){
-                    ClassDescr subClass = new ClassDescr();
-                    subClass.className = cls.className;
-                    subClass.shortClassName = cls.shortClassName;
-                    docClass.subClasses.add(subClass);
-                    cls.parent = docClass;
-                }
-            }
-            for(DocCfg cfg: context.getCfgs()){
-                if(docClass.className.equals(cfg.className)){
-                    docClass.cfgs.add(cfg);
-                }
-            }
-            for(DocProperty property: context.getProperties()){
-                if(docClass.className.equals(property.className)){
-                    docClass.properties.add(property);
-                }
-            }
-            for(DocMethod method: context.getMethods()){
-                if(docClass.className.equals(method.className)){
-                    docClass.methods.add(method);
-                }
-            }
-            for(DocEvent event: context.getEvents()){
-                if(docClass.className.equals(event.className)){
-                    docClass.events.add(event);
-                }
-            }
-        }
+    private ParsedFile parseFile(File file) throws IOException {
+        long start = System.nanoTime();
+        long cpuStart = stats.threadCpuTime();
+        ParsedFile parsedFile = parseCache != null ?
+                parseCache.parse(file, sourceParser) :
+                sourceParser.parse(file);
+        stats.fileParsed(file, parsedFile.size, parsedFile.comments.size(),
+                System.nanoTime() - start,
+                stats.threadCpuTime() - cpuStart);
+        return parsedFile;
     }
 
-    private <T extends DocAttribute> boolean isOverridden(T doc, List<T> docs){
-        if (doc.name == null || doc.name.equals("")) return false;
-        for(DocAttribute attr:docs){
-            String docName = StringUtils.separateByLastDot(doc.name)[1];
-            String attrName = StringUtils.separateByLastDot(attr.name)[1];
-            if (docName.equals(attrName)) return true;
+    private void openParseCache() {
+        if (watching && parseCache != null) {
+            // files parsed during previous run are kept in memory
+            parseCache.nextRun();
+            return;
+        }
+        if (cacheDir == null) {
+            parseCache = watching ? new ParseCache(null) : null;
+            return;
+        }
+        File cacheFile = new File(cacheDir, PARSE_CACHE_FILE);
+        parseCache = new ParseCache(cacheFile);
+        if (!parseCache.load()) {
+            logger.warning(MessageFormat.format(
+                    "Parse cache {0} can not be read, all files will be parsed",
+                    cacheFile));
         }
-        return false;
     }
 
-    private <T extends Doc> void removeHidden
-                                                                                        (List<T> docs){
-        for(ListIterator<T> it = docs.listIterator(); it.hasNext();){
-            if (it.next().hide)
-                it.remove();
+    private void saveParseCache(int fileCount) {
+        if (parseCache == null) {
+            return;
+        }
+        logger.info(MessageFormat.format(
+                "Parse cache: {0} of {1} files unchanged",
+                parseCache.getHits(), fileCount));
+        try {
+            parseCache.save();
+        } catch (IOException e) {
+            logger.warning(MessageFormat.format(
+                    "Parse cache can not be saved: {0}", e.getMessage()));
         }
     }
 
-    private <T extends DocAttribute> void addInherited (List<T> childDocs, List<T> parentDocs){
-        for(T attr: parentDocs) {
-            if (!isOverridden(attr, childDocs) && !attr.isStatic){
-                childDocs.add(attr);
+    /**
+     * Parses source files and merges them into context. With more than
+     * one thread files are parsed concurrently, but merged one by one in
+     * the original order, so result does not depend on number of threads.
+     *
+     * @param files source files
+     */
+    private void processFiles(List<File> files) {
+        if (threads <= 1) {
+            for (File file : files) {
+                try {
+                    mergeFile(parseFile(file));
+                } catch (IOException e) {
+                    error(e);
+                }
             }
+            return;
         }
-    }
-
-
-    private void injectInherited(){
-        for(DocClass cls: context.getClasses()){
-            DocClass parent = cls.parent;
-            while(parent!=null){
-                ClassDescr superClass = new ClassDescr();
-                superClass.className = parent.className;
-                superClass.shortClassName = parent.shortClassName;
-                cls.superClasses.add(superClass);
-                if (parent.className.equals(COMPONENT_NAME)){
-                    cls.component = true;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ParsedFile>> parsed =
+                    new ArrayList<Future<ParsedFile>>(files.size());
+            for (final File file : files) {
+                parsed.add(executor.submit(new Callable<ParsedFile>() {
+                    public ParsedFile call() throws IOException {
+                        return parseFile(file);
+                    }
+                }));
+            }
+            for (Future<ParsedFile> future : parsed) {
+                try {
+                    mergeFile(future.get());
+                } catch (ExecutionException e) {
+                    error(e.getCause());
                 }
-                addInherited(cls.cfgs, parent.cfgs);
-                addInherited(cls.properties, parent.properties);
-                addInherited(cls.methods, parent.methods);
-                addInherited(cls.events, parent.events);
-                parent = parent.parent;
             }
-            removeHidden(cls.cfgs);
-            removeHidden(cls.properties);
-            removeHidden(cls.methods);
-            removeHidden(cls.events);
-
-            // sorting
-            Collections.sort(cls.cfgs);
-            Collections.sort(cls.properties);
-            Collections.sort(cls.methods);
-            Collections.sort(cls.events);
-
-            Collections.reverse(cls.superClasses);
-            Collections.sort(cls.subClasses);
-
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
         }
-        removeHidden(context.getClasses());
     }
 
     private void createPackageHierarchy(){
@@ -749,16 +739,40 @@ public class FileProcessorImpl implements FileProcessor {
         context.sortTree();
     }
 
+    /**
+     * Records error of the current build
+     */
+    private void error(Throwable e){
+        errors.add(e);
+        logger.log(Level.SEVERE, String.valueOf(e), e);
+    }
+
     private void showStatistics(){
         logger.fine("*** STATISTICS ***") ;
-        for (Map.Entry<String, Integer> e : Comment.allTags.entrySet()){
+        for (Map.Entry<String, Integer> e : stats.getTags().entrySet()){
             logger.fine(e.getKey() + ": " + e.getValue());
         }
     }
 
+    private void saveStatistics(){
+        stats.endPhase();
+        if (statsFile == null) {
+            return;
+        }
+        try {
+            stats.save(new File(statsFile));
+            logger.info(MessageFormat.format("Statistics saved to {0}",
+                    statsFile));
+        } catch (IOException e) {
+            logger.warning(MessageFormat.format(
+                    "Statistics can not be saved: {0}", e.getMessage()));
+        }
+    }
+
     private Pattern filePattern 
             = Pattern.compile(StringUtils.wildcardToRegex(DEFAULT_MATCH));
     private boolean skipHidden = DEFAULT_SKIPHIDDEN;
+    private final List<File> sourceFiles = new ArrayList<File>();
 
     private void processDir(String dirName){
         File file = new File(dirName);
@@ -771,7 +785,7 @@ public class FileProcessorImpl implements FileProcessor {
                     }
                 }else{
                     if(filePattern.matcher(file.getName()).matches()){
-                        processFile(dirName);
+                        sourceFiles.add(new File(file.getAbsolutePath()));
                     }
                 }
             }
@@ -782,19 +796,32 @@ public class FileProcessorImpl implements FileProcessor {
         }
     }
 
-    public void process(String fileName, String[] extraSrc){
+    private synchronized JAXBContext getJaxbContext(String contextPath)
+            throws JAXBException {
+        JAXBContext jaxbContext = jaxbContexts.get(contextPath);
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(contextPath);
+            jaxbContexts.put(contextPath, jaxbContext);
+        }
+        return jaxbContext;
+    }
+
+    public synchronized void process(String fileName, String[] extraSrc){
+        context = new Context();
+        stats = new BuildStats();
+        errors.clear();
+        sourceRoots.clear();
+        sourceFiles.clear();
+        filePattern = Pattern.compile(
+                StringUtils.wildcardToRegex(DEFAULT_MATCH));
+        skipHidden = DEFAULT_SKIPHIDDEN;
         try {
 
             // process project file
             if(fileName!=null){
                 File xmlFile = new File(new File(fileName).getAbsolutePath());
-                FileInputStream fileInputStream = new FileInputStream(xmlFile);
-                JAXBContext jaxbContext =
-                        JAXBContext.newInstance("extdoc.jsdoc.schema");
-                Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
                 extdoc.jsdoc.schema.Doc doc =
-                        (extdoc.jsdoc.schema.Doc) unmarshaller.
-                                unmarshal(fileInputStream);
+                        ConfigReader.readProject(xmlFile);
                 extdoc.jsdoc.schema.Tags tags = doc.getTags();
                 if (tags!=null){
                     context.setCustomTags(doc.getTags().getTag());
@@ -805,71 +832,49 @@ public class FileProcessorImpl implements FileProcessor {
                     if(sources!=null){
                         for(extdoc.jsdoc.schema.Source src: sources){
                             String m = src.getMatch();
-                            Boolean sh = src.isSkipHidden();
+                            Boolean sh = src.getSkipHidden();
                             skipHidden = sh!=null?sh:DEFAULT_SKIPHIDDEN;
                             filePattern = Pattern.compile(
                                     StringUtils.wildcardToRegex(
                                             m!=null?m:DEFAULT_MATCH)); 
-                            processDir(xmlFile.getParent()+
+                            String dirName = xmlFile.getParent()+
                                     File.separator+
-                                    src.getSrc());
+                                    src.getSrc();
+                            sourceRoots.add(new File(dirName));
+                            processDir(dirName);
                         }
                     }
                 }
-                fileInputStream.close();
             }
             
             // process source files from command line
             if(extraSrc!=null){
                 for(String src : extraSrc){
+                    sourceRoots.add(new File(src));
                     processDir(src);
                 }
             }
 
+            stats.startPhase(BuildStats.PARSE);
+            openParseCache();
+            processFiles(sourceFiles);
+            saveParseCache(sourceFiles.size());
+            sourceFiles.clear();
+
             showStatistics();
-            createClassHierarchy();
-            injectInherited();
+            stats.startPhase(BuildStats.HIERARCHY);
+            new ClassHierarchy(context).build();
+            stats.startPhase(BuildStats.INHERITANCE);
+            new InheritanceResolver(context.getClasses(), logger).resolve();
+            stats.startPhase(BuildStats.TREE);
             createPackageHierarchy();
-        } catch (JAXBException e) {
-            e.printStackTrace();
+            stats.endPhase();
         } catch (IOException e) {
-            e.printStackTrace();
+            error(e);
         }
     }
 
 
-     private void copyDirectory(File sourceLocation , File targetLocation)
-        throws IOException {
-
-        // skip hidden
-        if (sourceLocation.isHidden()) return;
-         
-        if (sourceLocation.isDirectory()) {
-            if (!targetLocation.exists()) {
-                targetLocation.mkdir();
-            }
-
-            String[] children = sourceLocation.list();
-            for (String child : children) {
-                copyDirectory(new File(sourceLocation, child),
-                        new File(targetLocation, child));
-            }
-        } else {
-
-            InputStream in = new FileInputStream(sourceLocation);
-            OutputStream out = new FileOutputStream(targetLocation);
-
-            // Copy the bits from instream to outstream
-            byte[] buf = new byte[1024];
-            int len;
-            while ((len = in.read(buf)) > 0) {
-                out.write(buf, 0, len);
-            }
-            in.close();
-            out.close();
-        }
-    }
-
     private static final String WRAPPER_CODE_MARKER =
             "###SOURCE###";
 
@@ -892,199 +897,891 @@ public class FileProcessorImpl implements FileProcessor {
             }
             reader.close();
         } catch (IOException e) {
-            e.printStackTrace();
+            error(e);
+        }
+    }
+
+
+    /**
+     * Source page depends on wrapper, content of source file and positions
+     * of docs declared in it
+     */
+    private String sourceDigest(String wrapperDigest, DocFile docFile)
+            throws IOException {
+        if (docFile.hash == null) {
+            docFile.hash = ModelDigest.digest(docFile.file);
         }
+        List<String> inputs = new ArrayList<String>();
+        inputs.add(docFile.file.getPath());
+        inputs.add(docFile.hash);
+        for (Doc doc : docFile.docs) {
+            inputs.add(doc.id + '@' + doc.positionInFile);
+        }
+        return ModelDigest.digest(wrapperDigest, inputs);
     }
 
+    private static final String ANCHOR_START = "<div id=\"";
+
+    private static final String ANCHOR_END = "\"></div>";
+
+    private static final int SOURCE_BUFFER_SIZE = 64 * 1024;
 
-    private void copySourceFiles(String targetDir, String wrapper) {
-        new File(targetDir).mkdirs();
+    private static final Comparator<Doc> POSITION_ORDER =
+            new Comparator<Doc>() {
+                public int compare(Doc d1, Doc d2) {
+                    return d1.positionInFile < d2.positionInFile ? -1 :
+                            (d1.positionInFile == d2.positionInFile ? 0 : 1);
+                }
+            };
+
+    /**
+     * Wraps source file and marks positions of docs declared in it.
+     * Source is read in large blocks and written slice by slice between
+     * anchors, so the page is never kept in memory as a whole. Docs
+     * sharing position, ex. class and configs declared in its comment,
+     * all get their anchors.
+     */
+    private void writeSourcePage(DocFile docFile, CharSequence prefix,
+                                 CharSequence suffix, Writer out)
+            throws IOException {
+        List<Doc> anchors = new ArrayList<Doc>(docFile.docs);
+        // sort is stable, docs at the same position keep their order
+        Collections.sort(anchors, POSITION_ORDER);
+        Reader reader = new InputStreamReader(
+                new FileInputStream(docFile.file), ENCODING);
+        try {
+            out.append(prefix);
+            char[] buf = new char[SOURCE_BUFFER_SIZE];
+            // position of the first character in buffer, counted from 1
+            long position = 1;
+            int nextAnchor = 0;
+            int len;
+            while ((len = reader.read(buf)) != -1) {
+                long end = position + len;
+                int written = 0;
+                while (nextAnchor < anchors.size() &&
+                        anchors.get(nextAnchor).positionInFile < end) {
+                    Doc doc = anchors.get(nextAnchor++);
+                    int offset = (int) (doc.positionInFile - position);
+                    if (offset < 0) {
+                        continue;
+                    }
+                    out.write(buf, written, offset - written);
+                    written = offset;
+                    out.write(ANCHOR_START);
+                    out.write(doc.id);
+                    out.write(ANCHOR_END);
+                }
+                out.write(buf, written, len - written);
+                position = end;
+            }
+            out.append(suffix);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void copySourceFiles(DocOutput output, String targetDir,
+                                 String wrapper, OutputManifest manifest)
+            throws IOException {
         StringBuilder prefix = new StringBuilder();
         StringBuilder suffix = new StringBuilder();
         readWrapper(wrapper, prefix, suffix);
+        String wrapperDigest = manifest != null ?
+                ModelDigest.digest(new File(wrapper)) : null;
+        // files with the same name from different folders share page,
+        // the last one is saved
+        Map<String, DocFile> pages = new HashMap<String, DocFile>();
         for (DocFile docFile : context.getDocFiles()) {
+            pages.put(docFile.targetFileName, docFile);
+        }
+        for (DocFile docFile : pages.values()) {
             try {
-                File dst = new File(new StringBuilder().append(targetDir)
-                        .append(File.separator).append(docFile.targetFileName)
-                        .toString());
-                StringBuilder buffer = new StringBuilder();
-               BufferedReader reader =
-                    new BufferedReader(new InputStreamReader
-                            (new FileInputStream(docFile.file), ENCODING));
-                // current character
-                int numRead;
-                // position in file
-                int position = 0;
-                // current doc
-                ListIterator<Doc> it = docFile.docs.listIterator();
-                Doc doc = it.hasNext() ? it.next() : null;
-                buffer.append(prefix);
-                while ((numRead = reader.read()) != -1) {
-                    position++;
-                    char ch = (char) numRead;
-                    if (doc != null && position == doc.positionInFile) {
-                        buffer.append(MessageFormat.format(
-                                "<div id=\"{0}\"></div>", doc.id));
-                        doc = it.hasNext() ? it.next() : null;
+                String path = childPath(targetDir, docFile.targetFileName);
+                String key = "source:" + docFile.targetFileName;
+                String digest = null;
+                if (manifest != null) {
+                    digest = sourceDigest(wrapperDigest, docFile);
+                    if (manifest.isUpToDate(key, digest,
+                            outputFile(output, path))) {
+                        output.written(path);
+                        continue;
                     }
-                    buffer.append(ch);
                 }
-                buffer.append(suffix);
                 Writer out =
                         new BufferedWriter(new OutputStreamWriter
-                                (new FileOutputStream(dst), ENCODING));
-                out.write(buffer.toString());
-                out.close();
+                                (output.open(path), ENCODING));
+                try {
+                    writeSourcePage(docFile, prefix, suffix, out);
+                } finally {
+                    out.close();
+                }
+                stats.sourcePageWritten();
+                if (manifest != null) {
+                    manifest.update(key, digest);
+                }
             } catch (IOException e) {
-                e.printStackTrace();
+                error(e);
+            }
+        }
+    }
+
+
+    private Template loadTemplate(File templateFile) throws IOException {
+        return ConfigReader.readTemplate(templateFile);
+    }
+
+    private void renderTree(Templates treeTransformation, Result result)
+            throws JAXBException, ParserConfigurationException,
+            TransformerException {
+        JAXBContext jaxbTreeContext =
+                getJaxbContext("extdoc.jsdoc.tree");
+        Marshaller treeMarshaller = jaxbTreeContext.createMarshaller();
+        treeMarshaller.setProperty(
+                Marshaller.JAXB_FORMATTED_OUTPUT,
+                true
+        );
+        DocumentBuilderFactory builderFactory =
+                DocumentBuilderFactory.newInstance();
+        builderFactory.setNamespaceAware(true);
+        Transformer treeTransformer = treeTransformation.newTransformer();
+        Document doc =  builderFactory.newDocumentBuilder().newDocument();
+        treeMarshaller.marshal(context.getTree(), doc);
+        treeTransformer.transform(new DOMSource(doc), result);
+    }
+
+    /**
+     * Class page waiting to be rendered
+     */
+    private static class ClassPage {
+        DocClass docClass;
+        // path in output
+        String path;
+        // manifest entry, null if build is not incremental
+        String key;
+        String digest;
+    }
+
+    private static boolean isBuiltInRenderer(ClassTemplate classTemplate) {
+        return ExtClassPageRenderer.NAME.equals(classTemplate.getRenderer());
+    }
+
+    /**
+     * @return class stylesheet
+     * @throws IOException if template uses stylesheet renderer and gives
+     * no stylesheet
+     */
+    private static File classTplFile(File templateFolder,
+                                     ClassTemplate classTemplate)
+            throws IOException {
+        if (classTemplate.getTpl() == null) {
+            throw new IOException(
+                    "Class template needs tpl unless renderer is \"" +
+                    ExtClassPageRenderer.NAME + "\"");
+        }
+        return new File(templateFolder, classTemplate.getTpl());
+    }
+
+    /**
+     * @param classTemplate class template
+     * @param templateFolder folder of template file
+     * @return built-in renderer if template asks for one, renderer
+     * transforming classes with the stylesheet otherwise. Stylesheet is
+     * compiled once and shared by all threads.
+     * @throws IOException if stylesheet is not given
+     */
+    private PageRenderer createPageRenderer(ClassTemplate classTemplate,
+                                            File templateFolder)
+            throws JAXBException, TransformerConfigurationException,
+            IOException {
+        if (isBuiltInRenderer(classTemplate)) {
+            if (classTemplate.getTpl() != null) {
+                logger.warning(MessageFormat.format(
+                        "Stylesheet {0} is not used by built-in renderer",
+                        classTemplate.getTpl()));
             }
+            return new ExtClassPageRenderer();
+        }
+        return new ClassPageRenderer(getJaxbContext("extdoc.jsdoc.docs"),
+                compileStylesheet(TransformerFactory.newInstance(),
+                        classTplFile(templateFolder, classTemplate)),
+                domRender);
+    }
+
+    /**
+     * Stylesheet is compiled only if cache has no compiled copy of its
+     * current version
+     */
+    private Templates compileStylesheet(TransformerFactory factory,
+                                        File tplFile)
+            throws TransformerConfigurationException {
+        if (templatesCache == null) {
+            templatesCache = new TemplatesCache(cacheDir != null ?
+                    new File(cacheDir, TEMPLATES_CACHE_DIR) : null);
         }
+        int hits = templatesCache.getHits();
+        Templates templates = templatesCache.get(factory, tplFile);
+        logger.fine(MessageFormat.format(
+                templatesCache.getHits() > hits ?
+                        "Stylesheet {0} taken from cache" :
+                        "Stylesheet {0} compiled",
+                tplFile.getName()));
+        return templates;
     }
 
+    /**
+     * Page is written straight to output, unless other threads render
+     * pages to the output that takes one file at a time. Then it is
+     * rendered to memory first, so rendering is not serialized.
+     */
+    private void renderClass(PageRenderer renderer, ClassPage page,
+                             DocOutput output, OutputManifest manifest)
+            throws TransformerException {
+        logger.fine("Saving: " + page.docClass.className);
+        long start = System.nanoTime();
+        long cpuStart = stats.threadCpuTime();
+        try {
+            if (GENERATE_DEBUG_XML) {
+                OutputStream out = output.open(page.path + "_");
+                try {
+                    Marshaller marshaller = getJaxbContext("extdoc.jsdoc.docs")
+                            .createMarshaller();
+                    marshaller.setProperty(
+                            Marshaller.JAXB_FORMATTED_OUTPUT, true);
+                    marshaller.marshal(page.docClass, out);
+                } finally {
+                    out.close();
+                }
+            }
+            if (threads > 1 && !output.isConcurrent()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                renderer.render(page.docClass, bytes);
+                OutputStream out = output.open(page.path);
+                try {
+                    bytes.writeTo(out);
+                } finally {
+                    out.close();
+                }
+            } else {
+                OutputStream out = output.open(page.path);
+                try {
+                    renderer.render(page.docClass, out);
+                } finally {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new TransformerException(
+                    "Can not save class " + page.docClass.className, e);
+        } catch (JAXBException e) {
+            throw new TransformerException(
+                    "Can not save class " + page.docClass.className, e);
+        }
+        stats.pageWritten(page.docClass.className,
+                System.nanoTime() - start,
+                stats.threadCpuTime() - cpuStart);
+        if (manifest != null) {
+            manifest.update(page.key, page.digest);
+        }
+    }
+
+    /**
+     * Renders class pages, on several threads if threads option is set.
+     * Stops at the first page that can not be saved.
+     */
+    private void renderClasses(final PageRenderer renderer,
+                               List<ClassPage> pages,
+                               final DocOutput output,
+                               final OutputManifest manifest)
+            throws TransformerException {
+        if (threads <= 1) {
+            for (ClassPage page : pages) {
+                renderClass(renderer, page, output, manifest);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> rendered =
+                    new ArrayList<Future<Void>>(pages.size());
+            for (final ClassPage page : pages) {
+                rendered.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws TransformerException {
+                        renderClass(renderer, page, output, manifest);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : rendered) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof TransformerException) {
+                        throw (TransformerException) e.getCause();
+                    }
+                    throw new TransformerException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-    public void saveToFolder(String folderName, String templateFileName){
-        new File(folderName).mkdirs();
+    /**
+     * Saves documentation to folder, or to zip archive with the same
+     * layout if folder name ends with ".zip". Archive is written from
+     * scratch every time, incremental build needs a folder. Compressed
+     * copies are written by worker threads while pages are rendered.
+     */
+    public synchronized void saveToFolder(String folderName,
+                                          String templateFileName){
+        DocOutput output = null;
         try {
+            output = DocOutput.create(folderName, gzip ? threads : 0, stats);
+            File outputFolder = output.getFolder();
+            if (gzip && outputFolder == null) {
+                logger.warning("Compressed copies are not written to archive");
+            }
+
+            // Digests of page inputs from the previous run
+            OutputManifest manifest = null;
+            if (incremental && outputFolder != null) {
+                manifest = new OutputManifest(
+                        new File(outputFolder, MANIFEST_FILE));
+                manifest.load();
+            }
 
             File templateFile =
                     new File(new File(templateFileName).getAbsolutePath());
             String templateFolder = templateFile.getParent();
 
-            // Read template.xml
-            JAXBContext jaxbTplContext =
-                    JAXBContext.newInstance("extdoc.jsdoc.tplschema");
-            Unmarshaller unmarshaller = jaxbTplContext.createUnmarshaller();
-            Template template = (Template) unmarshaller.
-                        unmarshal(new FileInputStream(templateFile));
+            Template template = loadTemplate(templateFile);
             ClassTemplate classTemplate = template.getClassTemplate();
-            String classTplFileName = new StringBuilder()
-                    .append(templateFolder)
-                    .append(File.separator)
-                    .append(classTemplate.getTpl())
-                    .toString();
-            String classTplTargetDir = new StringBuilder()
-                    .append(folderName)
-                    .append(File.separator)
-                    .append(classTemplate.getTargetDir())
-                    .toString();
+            String classTplTargetDir = urlPath(classTemplate.getTargetDir());
             TreeTemplate treeTemplate = template.getTreeTemplate();
             String treeTplFileName = new StringBuilder()
                     .append(templateFolder)
                     .append(File.separator)
                     .append(treeTemplate.getTpl())
                     .toString();
-            String treeTplTargetFile = new StringBuilder()
-                    .append(folderName)
-                    .append(File.separator)
-                    .append(treeTemplate.getTargetFile())
-                    .toString();
+            String treeTplTargetFile = urlPath(treeTemplate.getTargetFile());
 
+            stats.startPhase(BuildStats.RESOURCE_COPY);
             logger.info("*** COPY RESOURCES ***") ;
-            new File(classTplTargetDir).mkdirs();
 
             // Copy resources
             Resources resources = template.getResources();
 
             List<Copy> dirs = resources.getCopy();
 
+            OutputManifest resourceManifest = null;
+            if (outputFolder != null) {
+                resourceManifest = new OutputManifest(
+                        new File(outputFolder, RESOURCE_MANIFEST_FILE));
+                resourceManifest.load();
+            }
+            ResourceCopier copier = new ResourceCopier(output,
+                    resourceManifest, Math.max(threads, MIN_COPY_THREADS),
+                    linkResources, stats);
             for(Copy dir : dirs){
                 String src = new StringBuilder()
                     .append(templateFolder)
                     .append(File.separator)
                     .append(dir.getSrc())
                     .toString();
-                String dst = new StringBuilder()
-                    .append(folderName)
-                    .append(File.separator)
-                    .append(dir.getDst())
-                    .toString();
-                copyDirectory(new File(src), new File(dst));
+                copier.add(new File(src), urlPath(dir.getDst()));
+            }
+            copier.copy();
+            if (resourceManifest != null) {
+                resourceManifest.save();
             }
+            logger.info(MessageFormat.format(
+                    "{0} of {1} resources copied, {2} linked",
+                    copier.getCopied(), copier.getTotal(),
+                    copier.getLinked()));
 
 
+            stats.startPhase(BuildStats.SOURCE_COPY);
             logger.info("*** COPY SOURCE FILES ***");
-            String sourceTargetDir = new StringBuilder()
-                    .append(folderName)
-                    .append(File.separator)
-                    .append(template.getSource().getTargetDir())
-                    .toString();
+            String sourceTargetDir =
+                    urlPath(template.getSource().getTargetDir());
              logger.info(MessageFormat.format("Target folder: {0}",
                      sourceTargetDir));
             String wrapperFile = templateFolder + File.separator +
                     template.getSource().getWrapper(); 
-            copySourceFiles(sourceTargetDir, wrapperFile);
-
+            copySourceFiles(output, sourceTargetDir, wrapperFile, manifest);
 
 
-            // Marshall and transform classes
-            JAXBContext jaxbContext =
-                    JAXBContext.newInstance("extdoc.jsdoc.docs");
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            marshaller.setProperty(
-                    Marshaller.JAXB_FORMATTED_OUTPUT,
-                    true
-            );
-            DocumentBuilderFactory builderFactory =
-                    DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
 
+            // Marshall and transform classes, or write them with
+            // built-in renderer
             TransformerFactory factory = TransformerFactory.newInstance();
-            Templates transformation = 
-                    factory
-                            .newTemplates (new StreamSource(classTplFileName)) ;
-            Transformer transformer = transformation.newTransformer();
-
-            DocumentBuilder docBuilder = builderFactory.newDocumentBuilder();
+            PageRenderer renderer = createPageRenderer(classTemplate,
+                    templateFile.getParentFile());
+
+            // built-in renderer does not depend on stylesheet
+            String classTplDigest = null;
+            if (manifest != null) {
+                classTplDigest = isBuiltInRenderer(classTemplate) ?
+                        classTemplate.getRenderer() :
+                        classTemplate.getRenderer() + ':' +
+                        TemplatesCache.digest(classTplFile(
+                                templateFile.getParentFile(), classTemplate));
+            }
 
+            stats.startPhase(BuildStats.RENDER);
             logger.info("*** SAVING FILES ***") ;
+            List<ClassPage> pages = new ArrayList<ClassPage>();
             for(DocClass docClass: context.getClasses()){
-                logger.fine("Saving: " + docClass.className);
-                String targetFileName = new StringBuilder()
-                        .append(classTplTargetDir)
-                        .append(File.separator)
-                        .append(docClass.className)
-                        .append('.')
-                        .append(OUT_FILE_EXTENSION)
-                        .toString();
-                Document doc = docBuilder.newDocument();
-                marshaller.marshal(docClass, doc);
+                ClassPage page = new ClassPage();
+                page.docClass = docClass;
+                page.path = childPath(classTplTargetDir,
+                        docClass.className + '.' + OUT_FILE_EXTENSION);
+                // page contains inherited members and subclasses, so
+                // it is generated again when parents or children change
+                if (manifest != null) {
+                    page.key = "class:" + docClass.className;
+                    page.digest = ModelDigest.digest(classTplDigest, docClass);
+                    if (manifest.isUpToDate(page.key, page.digest,
+                            outputFile(output, page.path))) {
+                        output.written(page.path);
+                        continue;
+                    }
+                }
+                pages.add(page);
+            }
+            if (manifest != null) {
+                logger.info(MessageFormat.format(
+                        "{0} of {1} class pages up to date",
+                        context.getClasses().size() - pages.size(),
+                        context.getClasses().size()));
+            }
+            renderClasses(renderer, pages, output, manifest);
+
+            // Marshall and transform tree, lazy tree is written straight
+            // from the model
+            stats.startPhase(BuildStats.TREE_RENDER);
+            LazyTree lazyTree = null;
+            if (LazyTree.MODE.equals(treeTemplate.getMode())) {
+                lazyTree = new LazyTree(context.getTree(), classTplTargetDir,
+                        treePackageDir(treeTemplate));
+            }
+            String treeDigest = null;
+            if (manifest != null) {
+                treeDigest = ModelDigest.digest(lazyTree != null ?
+                        LazyTree.MODE + ':' + classTplTargetDir + ':' +
+                                treePackageDir(treeTemplate) :
+                        TemplatesCache.digest(new File(treeTplFileName)),
+                        context.getTree());
+            }
+            if (manifest != null && manifest.isUpToDate("tree", treeDigest,
+                    outputFile(output, treeTplTargetFile))) {
+                if (lazyTree != null) {
+                    for (String path : lazyTree.getPaths(treeTplTargetFile)) {
+                        output.written(path);
+                    }
+                } else {
+                    output.written(treeTplTargetFile);
+                }
+            } else if (lazyTree != null) {
+                lazyTree.save(output, treeTplTargetFile);
+                logger.info(MessageFormat.format("{0} tree packages saved",
+                        lazyTree.getPackageCount()));
+                if (manifest != null) {
+                    manifest.update("tree", treeDigest);
+                }
+            } else {
+                Templates treeTransformation = compileStylesheet(factory,
+                        new File(treeTplFileName));
                 if (GENERATE_DEBUG_XML){
-                    marshaller.marshal(docClass, new File(targetFileName+"_"));
+                        OutputStream out = output.open(treeTplTargetFile+"_");
+                        try {
+                            getJaxbContext("extdoc.jsdoc.tree").createMarshaller().
+                                    marshal(context.getTree(), out);
+                        } finally {
+                            out.close();
+                        }
+                }
+                OutputStream out = output.open(treeTplTargetFile);
+                try {
+                    renderTree(treeTransformation, new StreamResult(out));
+                } finally {
+                    out.close();
+                }
+                if (manifest != null) {
+                    manifest.update("tree", treeDigest);
                 }
-                Result fileResult = new StreamResult(new File(targetFileName));
-                transformer.transform(new DOMSource(doc), fileResult);
-                transformer.reset();
             }
 
-            // Marshall and transform tree
-            JAXBContext jaxbTreeContext =
-                    JAXBContext.newInstance("extdoc.jsdoc.tree");
-            Marshaller treeMarshaller = jaxbTreeContext.createMarshaller();
-            treeMarshaller.setProperty(
-                    Marshaller.JAXB_FORMATTED_OUTPUT,
-                    true
-            );
-
-            Templates treeTransformation =
-                    factory.newTemplates (new StreamSource(treeTplFileName)) ;
-            Transformer treeTransformer = treeTransformation.newTransformer();
-            Document doc =  builderFactory.newDocumentBuilder().newDocument();
-            treeMarshaller.marshal(context.getTree(), doc);
-            if (GENERATE_DEBUG_XML){
-                    treeMarshaller.
-                            marshal(context.getTree(), new File(treeTplTargetFile+"_"));
+            // Search index
+            Search search = template.getSearch();
+            if (search != null) {
+                stats.startPhase(BuildStats.SEARCH);
+                logger.info("*** SAVING SEARCH INDEX ***");
+                SearchIndex searchIndex = new SearchIndex(DESCR_MAX_LENGTH);
+                for (DocClass docClass : context.getClasses()) {
+                    searchIndex.addClass(docClass);
+                }
+                searchIndex.save(output, urlPath(search.getTargetDir()));
+                logger.info(MessageFormat.format("{0} items indexed",
+                        searchIndex.getSize()));
             }
-            Result fileResult = new StreamResult(new File(treeTplTargetFile));
-            treeTransformer.transform(new DOMSource(doc), fileResult);
+
+            if (manifest != null) {
+                manifest.save();
+            }
+            if (gzip) {
+                stats.startPhase(BuildStats.COMPRESS);
+            }
+            output.close();
+            if (gzip && outputFolder != null) {
+                logger.info(MessageFormat.format(
+                        "{0} compressed copies written",
+                        output.getCompressed()));
+            }
+            stats.bytesWritten(output.getBytesWritten());
+            output = null;
+            saveStatistics();
 
         } catch (JAXBException e) {
-            e.printStackTrace();
+            error(e);
         } catch (ParserConfigurationException e) {
-            e.printStackTrace();
+            error(e);
+        } catch (TransformerException e) {
+            error(e);
+        } catch (IOException e) {
+            error(e);
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    error(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates documentation once. Builds of the same processor run one
+     * at a time, separate processors may build at the same time.
+     */
+    public synchronized BuildResult build(String fileName, String[] extraSrc,
+                                          String folderName,
+                                          String templateFileName){
+        process(fileName, extraSrc);
+        saveToFolder(folderName, templateFileName);
+        return new BuildResult(context.getClasses().size(), stats, errors);
+    }
+
+    /**
+     * Generates documentation and keeps regenerating it when sources,
+     * project file or template change. Parsed files are kept in memory,
+     * only changed files are parsed again and only changed pages are
+     * saved. Never returns unless interrupted.
+     */
+    public void watch(String fileName, String[] extraSrc,
+                      String folderName, String templateFileName){
+        watching = true;
+        incremental = true;
+        process(fileName, extraSrc);
+        saveToFolder(folderName, templateFileName);
+        try {
+            SourceWatcher watcher = new SourceWatcher();
+            try {
+                watcher.ignore(new File(folderName));
+                if (cacheDir != null) {
+                    watcher.ignore(new File(cacheDir));
+                }
+                watcher.watchTree(new File(templateFileName)
+                        .getAbsoluteFile().getParentFile());
+                if (fileName != null) {
+                    watcher.watchFile(new File(fileName));
+                }
+                Set<File> watchedRoots = new HashSet<File>();
+                while (true) {
+                    // project file may add new sources
+                    for (File root : sourceRoots) {
+                        if (watchedRoots.add(root) && root.exists()) {
+                            watcher.watchTree(root);
+                        }
+                    }
+                    logger.info("*** WATCHING FOR CHANGES ***");
+                    Set<File> changed = watcher.awaitChanges();
+                    long start = System.currentTimeMillis();
+                    logger.info(MessageFormat.format("Changed: {0}",
+                            changed.size() == 1 ? changed.iterator().next()
+                                    : changed.size() + " files"));
+                    process(fileName, extraSrc);
+                    saveToFolder(folderName, templateFileName);
+                    logger.info(MessageFormat.format(
+                            "Documentation updated in {0} ms",
+                            String.valueOf(System.currentTimeMillis() - start)));
+                }
+            } finally {
+                watcher.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Can not watch sources", e);
+        }
+    }
+
+    /**
+     * Converts file name from template.xml to path used in URLs
+     */
+    private static String urlPath(String fileName) {
+        String path = fileName.replace('\\', '/');
+        while (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /**
+     * @return path of folder with package files of lazy tree, by default
+     * folder named as the root script without extension
+     */
+    private static String treePackageDir(TreeTemplate treeTemplate) {
+        if (treeTemplate.getPackageDir() != null) {
+            return urlPath(treeTemplate.getPackageDir());
+        }
+        String rootFile = urlPath(treeTemplate.getTargetFile());
+        int dot = rootFile.lastIndexOf('.');
+        return dot > rootFile.lastIndexOf('/') ?
+                rootFile.substring(0, dot) : rootFile + "_packages";
+    }
+
+    /**
+     * @return path of file or folder name in folder dir
+     */
+    private static String childPath(String dir, String name) {
+        return dir.length() == 0 ? name : dir + '/' + name;
+    }
+
+    /**
+     * @return file in output folder, null if output is not a folder
+     */
+    private static File outputFile(DocOutput output, String path) {
+        File root = output.getFolder();
+        return root != null ?
+                new File(root, path.replace('/', File.separatorChar)) : null;
+    }
+
+    /**
+     * @return name of the file path points to, null if file is not
+     * directly in folder dir
+     */
+    private static String fileName(String path, String dir) {
+        String name;
+        if (dir.length() == 0) {
+            name = path;
+        } else if (path.startsWith(dir + '/')) {
+            name = path.substring(dir.length() + 1);
+        } else {
+            return null;
+        }
+        return name.indexOf('/') == -1 ? name : null;
+    }
+
+    /**
+     * Pages generated on request, at the same paths saveToFolder saves
+     * them to
+     */
+    private class ServedPages implements DocServer.PageSource {
+
+        private final File templateFolder;
+
+        private final List<Copy> resources;
+
+        private final PageRenderer renderer;
+
+        // null if tree is lazy
+        private final Templates treeTransformation;
+
+        // null if tree is rendered by stylesheet
+        private final LazyTree lazyTree;
+
+        private final String treePackageDir;
+
+        private final String classDir;
+
+        private final String treeFile;
+
+        private final String sourceDir;
+
+        // null if template has no search
+        private final String searchDir;
+
+        private final StringBuilder prefix = new StringBuilder();
+
+        private final StringBuilder suffix = new StringBuilder();
+
+        private final Map<String, DocClass> classes =
+                new HashMap<String, DocClass>();
+
+        private final Map<String, DocFile> sourceFiles =
+                new HashMap<String, DocFile>();
+
+        private SearchIndex searchIndex = null;
+
+        ServedPages(File templateFolder, Template template)
+                throws JAXBException, TransformerConfigurationException,
+                IOException {
+            this.templateFolder = templateFolder;
+            resources = template.getResources().getCopy();
+            ClassTemplate classTemplate = template.getClassTemplate();
+            TreeTemplate treeTemplate = template.getTreeTemplate();
+            TransformerFactory factory = TransformerFactory.newInstance();
+            renderer = createPageRenderer(classTemplate, templateFolder);
+            classDir = urlPath(classTemplate.getTargetDir());
+            treePackageDir = treePackageDir(treeTemplate);
+            if (LazyTree.MODE.equals(treeTemplate.getMode())) {
+                treeTransformation = null;
+                lazyTree = new LazyTree(context.getTree(), classDir,
+                        treePackageDir);
+            } else {
+                treeTransformation = compileStylesheet(factory,
+                        new File(templateFolder, treeTemplate.getTpl()));
+                lazyTree = null;
+            }
+            treeFile = urlPath(treeTemplate.getTargetFile());
+            sourceDir = urlPath(template.getSource().getTargetDir());
+            searchDir = template.getSearch() != null ?
+                    urlPath(template.getSearch().getTargetDir()) : null;
+            readWrapper(new File(templateFolder,
+                    template.getSource().getWrapper()).getPath(),
+                    prefix, suffix);
+            for (DocClass docClass : context.getClasses()) {
+                classes.put(docClass.className, docClass);
+            }
+            for (DocFile docFile : context.getDocFiles()) {
+                sourceFiles.put(docFile.targetFileName, docFile);
+            }
+        }
+
+        private synchronized SearchIndex getSearchIndex() {
+            if (searchIndex == null) {
+                searchIndex = new SearchIndex(DESCR_MAX_LENGTH);
+                for (DocClass docClass : context.getClasses()) {
+                    searchIndex.addClass(docClass);
+                }
+            }
+            return searchIndex;
+        }
+
+        public byte[] getPage(String path) throws Exception {
+            if (path.equals(treeFile) && lazyTree != null) {
+                return lazyTree.getRoot().getBytes(ENCODING);
+            }
+            String name = lazyTree != null ?
+                    fileName(path, treePackageDir) : null;
+            if (name != null) {
+                String pkg = lazyTree.getPackage(name);
+                if (pkg != null) {
+                    return pkg.getBytes(ENCODING);
+                }
+            }
+            if (path.equals(treeFile)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                renderTree(treeTransformation, new StreamResult(out));
+                return out.toByteArray();
+            }
+            name = fileName(path, classDir);
+            String extension = '.' + OUT_FILE_EXTENSION;
+            if (name != null && name.endsWith(extension)) {
+                DocClass docClass = classes.get(name.substring(0,
+                        name.length() - extension.length()));
+                if (docClass != null) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    renderer.render(docClass, out);
+                    return out.toByteArray();
+                }
+            }
+            name = fileName(path, sourceDir);
+            DocFile docFile = name != null ? sourceFiles.get(name) : null;
+            if (docFile != null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                        (int) docFile.file.length() + prefix.length()
+                                + suffix.length());
+                Writer out = new OutputStreamWriter(bytes, ENCODING);
+                writeSourcePage(docFile, prefix, suffix, out);
+                out.close();
+                return bytes.toByteArray();
+            }
+            name = searchDir != null ? fileName(path, searchDir) : null;
+            if (name != null) {
+                String shard = getSearchIndex().getFile(name);
+                if (shard != null) {
+                    return shard.getBytes(ENCODING);
+                }
+            }
+            return null;
+        }
+
+        public File getFile(String path) {
+            for (Copy copy : resources) {
+                String dst = urlPath(copy.getDst());
+                File src = new File(templateFolder, copy.getSrc());
+                if (path.equals(dst)) {
+                    return src;
+                }
+                if (dst.length() == 0 || path.startsWith(dst + '/')) {
+                    String rest = dst.length() == 0 ? path :
+                            path.substring(dst.length() + 1);
+                    return new File(src, rest.replace('/', File.separatorChar));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parses sources once and serves documentation over HTTP, pages are
+     * generated only when they are requested. Never returns unless
+     * interrupted.
+     */
+    public void serve(String fileName, String[] extraSrc,
+                      String templateFileName, int port){
+        process(fileName, extraSrc);
+        saveStatistics();
+        try {
+            File templateFile =
+                    new File(new File(templateFileName).getAbsolutePath());
+            DocServer server = new DocServer(
+                    new ServedPages(templateFile.getParentFile(),
+                            loadTemplate(templateFile)),
+                    SERVE_CACHE_SIZE, logger);
+            server.start(bindAddress != null ?
+                    InetAddress.getByName(bindAddress) :
+                    InetAddress.getLoopbackAddress(),
+                    port, Math.max(threads, MIN_SERVE_THREADS));
+            try {
+                logger.info(MessageFormat.format(
+                        "Serving documentation at http://{0}:{1}/",
+                        bindAddress != null ? bindAddress : "localhost",
+                        String.valueOf(server.getPort())));
+                server.awaitStop();
+            } finally {
+                server.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JAXBException e) {
+            logger.log(Level.SEVERE, "Can not serve documentation", e);
         } catch (TransformerException e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Can not serve documentation", e);
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Can not serve documentation", e);
         }
     }
 }
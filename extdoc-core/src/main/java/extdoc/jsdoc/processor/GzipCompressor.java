@@ -0,0 +1,167 @@
+package extdoc.jsdoc.processor;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes gzip compressed copy next to every text file of the output, for
+ * web servers serving precompressed files. Files are compressed on worker
+ * threads while the build goes on. Copy is written to a temporary file
+ * and renamed, so server never sees an incomplete copy. Copy gets
+ * modification time of its file, copy with the same time is up to date.
+ */
+class GzipCompressor {
+
+    public static final String EXTENSION = ".gz";
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private static final Set<String> TEXT_EXTENSIONS = new HashSet<String>(
+            Arrays.asList("html", "htm", "js", "css", "json", "xml", "svg",
+                    "txt"));
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExecutorService executor;
+
+    private final BuildStats stats;
+
+    private final List<Future<Long>> pending = new ArrayList<Future<Long>>();
+
+    private int compressed = 0;
+
+    private long bytesWritten = 0;
+
+    /**
+     * @param threads number of threads compressing files
+     * @param stats build statistics, CPU time of workers is charged to
+     * compression phase
+     */
+    public GzipCompressor(int threads, BuildStats stats) {
+        executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+        this.stats = stats;
+    }
+
+    private static boolean isText(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot != -1 && TEXT_EXTENSIONS.contains(
+                name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Schedules compression of file, files other than text and files with
+     * up to date copy are skipped
+     * @param file complete file
+     */
+    public synchronized void add(final File file) {
+        if (!isText(file.getName())) {
+            return;
+        }
+        final File copy = new File(file.getPath() + EXTENSION);
+        if (copy.lastModified() == file.lastModified() && copy.isFile()) {
+            return;
+        }
+        pending.add(executor.submit(new Callable<Long>() {
+            public Long call() throws IOException {
+                long cpuStart = stats.threadCpuTime();
+                try {
+                    return compress(file, copy);
+                } finally {
+                    stats.workDone(BuildStats.COMPRESS,
+                            stats.threadCpuTime() - cpuStart);
+                }
+            }
+        }));
+    }
+
+    /**
+     * @return size of the copy
+     */
+    private static long compress(File file, File copy) throws IOException {
+        File temp = new File(copy.getPath() + TEMP_EXTENSION);
+        InputStream in = new FileInputStream(file);
+        try {
+            OutputStream out = new GZIPOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temp), BUFFER_SIZE), BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            };
+            try {
+                byte[] buf = new byte[BUFFER_SIZE];
+                int len;
+                while ((len = in.read(buf)) != -1) {
+                    out.write(buf, 0, len);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        temp.setLastModified(file.lastModified());
+        Files.move(temp.toPath(), copy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        return copy.length();
+    }
+
+    public synchronized int getCompressed() {
+        return compressed;
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Waits until all files added are compressed and stops workers
+     * @throws IOException if file can not be compressed
+     */
+    public void finish() throws IOException {
+        List<Future<Long>> done;
+        synchronized (this) {
+            done = new ArrayList<Future<Long>>(pending);
+            pending.clear();
+        }
+        try {
+            for (Future<Long> future : done) {
+                try {
+                    long size = future.get();
+                    synchronized (this) {
+                        compressed++;
+                        bytesWritten += size;
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
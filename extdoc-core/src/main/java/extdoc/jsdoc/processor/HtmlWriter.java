@@ -0,0 +1,225 @@
+package extdoc.jsdoc.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Writes HTML escaped the same way as html output method of XSLT does:
+ * text, attribute values and URI attribute values (href, src) each have
+ * their own rules. Null values are written as empty strings.
+ */
+class HtmlWriter {
+
+    private static final String ENTITIES_RESOURCE = "html-entities.properties";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // entity names by character
+    private static final String[] ENTITIES = loadEntities();
+
+    private final Writer out;
+
+    public HtmlWriter(Writer out) {
+        this.out = out;
+    }
+
+    private static String[] loadEntities() {
+        Properties properties = new Properties();
+        try {
+            InputStream in =
+                    HtmlWriter.class.getResourceAsStream(ENTITIES_RESOURCE);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Can not load " + ENTITIES_RESOURCE, e);
+        }
+        int max = 0;
+        for (Object value : properties.values()) {
+            max = Math.max(max, Integer.parseInt((String) value));
+        }
+        String[] entities = new String[max + 1];
+        for (Map.Entry<Object, Object> e : properties.entrySet()) {
+            entities[Integer.parseInt((String) e.getValue())] =
+                    '&' + (String) e.getKey() + ';';
+        }
+        return entities;
+    }
+
+    private static String entity(char ch) {
+        return ch < ENTITIES.length ? ENTITIES[ch] : null;
+    }
+
+    /**
+     * Writes markup as is
+     */
+    public HtmlWriter markup(String markup) throws IOException {
+        out.write(markup);
+        return this;
+    }
+
+    /**
+     * Writes HTML as is, same as disable-output-escaping
+     */
+    public HtmlWriter html(String html) throws IOException {
+        if (html != null) {
+            out.write(html);
+        }
+        return this;
+    }
+
+    private void charRef(int codePoint) throws IOException {
+        out.write("&#");
+        out.write(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+    /**
+     * Writes text content of element
+     */
+    public HtmlWriter text(String text) throws IOException {
+        if (text == null) {
+            return this;
+        }
+        int len = text.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char ch = text.charAt(i);
+            String replacement = null;
+            int codePoint = -1;
+            if (ch < 0x80) {
+                if (ch == '<') {
+                    replacement = "&lt;";
+                } else if (ch == '>') {
+                    replacement = "&gt;";
+                } else if (ch == '&') {
+                    replacement = "&amp;";
+                } else if ((ch < 0x20 && ch != '\t' && ch != '\n') ||
+                        ch == 0x7f) {
+                    codePoint = ch;
+                } else {
+                    continue;
+                }
+            } else if (ch < 0xa0) {
+                codePoint = ch;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < len &&
+                    Character.isLowSurrogate(text.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(ch, text.charAt(i + 1));
+            } else {
+                replacement = entity(ch);
+                if (replacement == null) {
+                    continue;
+                }
+            }
+            out.write(text, start, i - start);
+            if (replacement != null) {
+                out.write(replacement);
+            } else {
+                charRef(codePoint);
+                if (codePoint > 0xffff) {
+                    i++;
+                }
+            }
+            start = i + 1;
+        }
+        out.write(text, start, len - start);
+        return this;
+    }
+
+    /**
+     * Writes value of attribute other than URI
+     */
+    public HtmlWriter attr(String value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        int len = value.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char ch = value.charAt(i);
+            String replacement;
+            if (ch == '&') {
+                // "&{" is kept for script entities of HTML 4
+                if (i + 1 < len && value.charAt(i + 1) == '{') {
+                    continue;
+                }
+                replacement = "&amp;";
+            } else if (ch == '"') {
+                replacement = "&quot;";
+            } else if (ch < 0x20) {
+                if (ch == '\t' || ch == '\n' || ch == '\r') {
+                    continue;
+                }
+                replacement = "&#" + (int) ch + ';';
+            } else if (ch >= 0xa0) {
+                replacement = entity(ch);
+                if (replacement == null) {
+                    continue;
+                }
+            } else {
+                continue;
+            }
+            out.write(value, start, i - start);
+            out.write(replacement);
+            start = i + 1;
+        }
+        out.write(value, start, len - start);
+        return this;
+    }
+
+    private void percent(int b) throws IOException {
+        out.write('%');
+        out.write(HEX[(b >> 4) & 0xf]);
+        out.write(HEX[b & 0xf]);
+    }
+
+    /**
+     * Writes value of URI attribute, characters other than ASCII are
+     * written as %-escaped UTF-8 bytes
+     */
+    public HtmlWriter uri(String value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        int len = value.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            char ch = value.charAt(i);
+            if (ch > 0x20 && ch < 0x7f && ch != '"' && ch != '&') {
+                continue;
+            }
+            if (ch == ' ') {
+                continue;
+            }
+            out.write(value, start, i - start);
+            if (ch == '&') {
+                out.write("&amp;");
+            } else if (ch < 0x80) {
+                percent(ch);
+            } else if (ch < 0x800) {
+                percent(0xc0 | (ch >> 6));
+                percent(0x80 | (ch & 0x3f));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < len &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                percent(0xf0 | (codePoint >> 18));
+                percent(0x80 | ((codePoint >> 12) & 0x3f));
+                percent(0x80 | ((codePoint >> 6) & 0x3f));
+                percent(0x80 | (codePoint & 0x3f));
+            } else {
+                percent(0xe0 | (ch >> 12));
+                percent(0x80 | ((ch >> 6) & 0x3f));
+                percent(0x80 | (ch & 0x3f));
+            }
+            start = i + 1;
+        }
+        out.write(value, start, len - start);
+        return this;
+    }
+}
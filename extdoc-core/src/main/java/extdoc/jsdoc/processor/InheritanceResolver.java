@@ -0,0 +1,203 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.*;
+import extdoc.jsdoc.util.StringUtils;
+
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Adds inherited members to classes. Classes are resolved from the root
+ * of the hierarchy down: members a class passes to its subclasses are
+ * computed once and reused by all of them. Member is overridden if class
+ * or one of its nearer parents has member with the same short name,
+ * names are looked up in a hash set. Hidden members are removed only
+ * after inheritance, so they still hide members of parents.
+ */
+class InheritanceResolver {
+
+    private final static String COMPONENT_NAME = "Ext.Component";
+
+    private final Logger logger;
+
+    private final List<DocClass> classes;
+
+    /**
+     * Members every resolved class passes to its subclasses
+     */
+    private final Map<DocClass, Inherited> inherited =
+            new HashMap<DocClass, Inherited>();
+
+    /**
+     * Non-static members of class and its parents, each short name only
+     * once, nearest to the class first
+     */
+    private static class Members<T extends DocAttribute> {
+        final List<T> list = new ArrayList<T>();
+        final Set<String> names = new HashSet<String>();
+
+        void add(T attr) {
+            list.add(attr);
+            String name = shortName(attr);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+    }
+
+    private static class Inherited {
+        final Members<DocCfg> cfgs = new Members<DocCfg>();
+        final Members<DocProperty> properties = new Members<DocProperty>();
+        final Members<DocMethod> methods = new Members<DocMethod>();
+        final Members<DocEvent> events = new Members<DocEvent>();
+    }
+
+    /**
+     * @param classes classes linked to their parents
+     * @param logger logger of the processor
+     */
+    public InheritanceResolver(List<DocClass> classes, Logger logger) {
+        this.classes = classes;
+        this.logger = logger;
+    }
+
+    private static String shortName(DocAttribute attr) {
+        return attr.name != null ?
+                StringUtils.separateByLastDot(attr.name)[1] : null;
+    }
+
+    private static <T extends DocAttribute> boolean isOverridden(
+            T doc, Set<String> names) {
+        if (doc.name == null || doc.name.equals("")) return false;
+        return names.contains(shortName(doc));
+    }
+
+    private static <T extends DocAttribute> void collect(
+            Members<T> members, List<T> own, Members<T> parent) {
+        for (T attr : own) {
+            if (!attr.isStatic && !isOverridden(attr, members.names)) {
+                members.add(attr);
+            }
+        }
+        if (parent != null) {
+            for (T attr : parent.list) {
+                if (!isOverridden(attr, members.names)) {
+                    members.add(attr);
+                }
+            }
+        }
+    }
+
+    private static <T extends DocAttribute> void addInherited(
+            List<T> childDocs, Members<T> parent) {
+        Set<String> names = new HashSet<String>();
+        for (T attr : childDocs) {
+            String name = shortName(attr);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        for (T attr : parent.list) {
+            if (!isOverridden(attr, names)) {
+                childDocs.add(attr);
+            }
+        }
+    }
+
+    private static <T extends Doc> void removeHidden(List<T> docs){
+        for(ListIterator<T> it = docs.listIterator(); it.hasNext();){
+            if (it.next().hide)
+                it.remove();
+        }
+    }
+
+    /**
+     * Computes members class passes to subclasses, parents are resolved
+     * first. Cycles in hierarchy are broken at the class where they are
+     * detected.
+     */
+    private Inherited resolve(DocClass cls) {
+        Inherited result = inherited.get(cls);
+        if (result != null) {
+            return result;
+        }
+        // unresolved ancestors, nearest first
+        List<DocClass> chain = new ArrayList<DocClass>();
+        Set<DocClass> visited = new HashSet<DocClass>();
+        DocClass current = cls;
+        while (current != null && !inherited.containsKey(current)) {
+            if (!visited.add(current)) {
+                logger.warning(MessageFormat.format(
+                        "Class {0} inherits itself", current.className));
+                break;
+            }
+            chain.add(current);
+            current = current.parent;
+        }
+        Inherited parent = current != null ? inherited.get(current) : null;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            DocClass docClass = chain.get(i);
+            Inherited members = new Inherited();
+            collect(members.cfgs, docClass.cfgs,
+                    parent != null ? parent.cfgs : null);
+            collect(members.properties, docClass.properties,
+                    parent != null ? parent.properties : null);
+            collect(members.methods, docClass.methods,
+                    parent != null ? parent.methods : null);
+            collect(members.events, docClass.events,
+                    parent != null ? parent.events : null);
+            inherited.put(docClass, members);
+            parent = members;
+        }
+        return inherited.get(cls);
+    }
+
+    private void addSuperClasses(DocClass cls) {
+        Set<DocClass> visited = new HashSet<DocClass>();
+        visited.add(cls);
+        DocClass parent = cls.parent;
+        while (parent != null && visited.add(parent)) {
+            ClassDescr superClass = new ClassDescr();
+            superClass.className = parent.className;
+            superClass.shortClassName = parent.shortClassName;
+            cls.superClasses.add(superClass);
+            if (COMPONENT_NAME.equals(parent.className)){
+                cls.component = true;
+            }
+            parent = parent.parent;
+        }
+        Collections.reverse(cls.superClasses);
+    }
+
+    public void resolve() {
+        // own members are needed by subclasses, so inherited members are
+        // added only after all classes are resolved
+        for (DocClass cls : classes) {
+            resolve(cls);
+        }
+        for (DocClass cls : classes) {
+            addSuperClasses(cls);
+            if (cls.parent != null && inherited.containsKey(cls.parent)) {
+                Inherited parent = inherited.get(cls.parent);
+                addInherited(cls.cfgs, parent.cfgs);
+                addInherited(cls.properties, parent.properties);
+                addInherited(cls.methods, parent.methods);
+                addInherited(cls.events, parent.events);
+            }
+            removeHidden(cls.cfgs);
+            removeHidden(cls.properties);
+            removeHidden(cls.methods);
+            removeHidden(cls.events);
+
+            // sorting
+            Collections.sort(cls.cfgs);
+            Collections.sort(cls.properties);
+            Collections.sort(cls.methods);
+            Collections.sort(cls.events);
+
+            Collections.sort(cls.subClasses);
+        }
+        removeHidden(classes);
+    }
+}
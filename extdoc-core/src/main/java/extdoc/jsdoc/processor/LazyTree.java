@@ -0,0 +1,201 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocCustomTag;
+import extdoc.jsdoc.tree.TreeClass;
+import extdoc.jsdoc.tree.TreePackage;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Navigation tree loaded by parts. Small root script declares top level
+ * packages and classes and icons of all classes, every package has JSON
+ * file with its children, loaded when the package node is expanded. Written straight from the
+ * tree model, nodes are the same tree.xsl writes, package nodes have
+ * name of their file instead of children.
+ */
+class LazyTree {
+
+    public static final String MODE = "lazy";
+
+    private static final String PACKAGE_EXTENSION = ".json";
+
+    private static final String BRICK_ICON_TAG = "brick-icon";
+
+    private static final String ENCODING = "UTF8";
+
+    private final TreePackage root;
+
+    private final String classDir;
+
+    private final String packageDir;
+
+    // packages by file name
+    private final Map<String, TreePackage> packages =
+            new LinkedHashMap<String, TreePackage>();
+
+    /**
+     * @param root root of package tree
+     * @param classDir path of folder with class pages
+     * @param packageDir path of folder with package files
+     */
+    public LazyTree(TreePackage root, String classDir, String packageDir) {
+        this.root = root;
+        this.classDir = classDir;
+        this.packageDir = packageDir;
+        addPackages(root);
+    }
+
+    private void addPackages(TreePackage pkg) {
+        for (TreePackage child : pkg.packages) {
+            packages.put(child.fullName + PACKAGE_EXTENSION, child);
+            addPackages(child);
+        }
+    }
+
+    private static String icon(TreeClass cls) {
+        for (DocCustomTag tag : cls.customTags) {
+            if (BRICK_ICON_TAG.equals(tag.title)) {
+                return tag.value;
+            }
+        }
+        if (cls.singleton) {
+            return "icon-static";
+        }
+        return cls.component ? "icon-cmp" : "icon-cls";
+    }
+
+    private static String path(String dir, String name) {
+        return dir.length() == 0 ? name : dir + '/' + name;
+    }
+
+    /**
+     * Appends nodes of subpackages and classes of package
+     */
+    private void appendChildren(StringBuilder sb, TreePackage pkg) {
+        boolean first = true;
+        for (TreePackage child : pkg.packages) {
+            sb.append(first ? "" : ",").append("{\"id\":");
+            SearchIndex.appendJson(sb, "pkg-" + child.fullName);
+            sb.append(",\"text\":");
+            SearchIndex.appendJson(sb, child.name);
+            sb.append(",\"iconCls\":\"icon-pkg\",\"cls\":\"package\"," +
+                    "\"singleClickExpand\":true,\"file\":");
+            SearchIndex.appendJson(sb, child.fullName + PACKAGE_EXTENSION);
+            sb.append('}');
+            first = false;
+        }
+        for (TreeClass cls : pkg.classes) {
+            sb.append(first ? "" : ",").append("{\"href\":");
+            SearchIndex.appendJson(sb, path(classDir, cls.className + ".html"));
+            sb.append(",\"text\":");
+            SearchIndex.appendJson(sb, cls.shortClassName);
+            sb.append(",\"id\":");
+            SearchIndex.appendJson(sb, cls.className);
+            sb.append(",\"isClass\":true,\"iconCls\":");
+            SearchIndex.appendJson(sb, icon(cls));
+            sb.append(",\"cls\":\"cls\",\"leaf\":true}");
+            first = false;
+        }
+    }
+
+    /**
+     * Appends icons of classes of package and its subpackages
+     * @return true if nothing has been appended yet
+     */
+    private static boolean appendIcons(StringBuilder sb, TreePackage pkg,
+                                       boolean first) {
+        for (TreeClass cls : pkg.classes) {
+            sb.append(first ? "" : ",");
+            SearchIndex.appendJson(sb, cls.className);
+            sb.append(':');
+            SearchIndex.appendJson(sb, icon(cls));
+            first = false;
+        }
+        for (TreePackage child : pkg.packages) {
+            first = appendIcons(sb, child, first);
+        }
+        return first;
+    }
+
+    /**
+     * @return root script: URL of package files, root node with top
+     * level packages and classes and icons of all classes, so classes
+     * opened before their package is loaded get their icons
+     */
+    public String getRoot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Docs.treeUrl = ");
+        SearchIndex.appendJson(sb, path(packageDir, ""));
+        sb.append(";\nDocs.classData = {\"id\":\"apidocs\"," +
+                "\"iconCls\":\"icon-docs\",\"text\":\"API Documentation\"," +
+                "\"singleClickExpand\":true,\"children\":[");
+        appendChildren(sb, root);
+        sb.append("]};\nDocs.icons = {");
+        appendIcons(sb, root, true);
+        sb.append("};\n");
+        return sb.toString();
+    }
+
+    /**
+     * @param fileName name of package file, ex. "Ext.data.json"
+     * @return nodes of package children in JSON format, null if there is
+     * no such package
+     */
+    public String getPackage(String fileName) {
+        TreePackage pkg = packages.get(fileName);
+        if (pkg == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        appendChildren(sb, pkg);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    /**
+     * @param rootFile path of root script
+     * @return paths of all files of the tree
+     */
+    public List<String> getPaths(String rootFile) {
+        List<String> paths = new ArrayList<String>(packages.size() + 1);
+        paths.add(rootFile);
+        for (String fileName : packages.keySet()) {
+            paths.add(path(packageDir, fileName));
+        }
+        return paths;
+    }
+
+    private static void write(DocOutput output, String path, String content)
+            throws IOException {
+        Writer out = new OutputStreamWriter(output.open(path), ENCODING);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes root script and package files
+     * @param output output documentation is written to
+     * @param rootFile path of root script
+     * @throws IOException if file can not be written
+     */
+    public void save(DocOutput output, String rootFile) throws IOException {
+        write(output, rootFile, getRoot());
+        for (String fileName : packages.keySet()) {
+            write(output, path(packageDir, fileName), getPackage(fileName));
+        }
+    }
+
+    public int getPackageCount() {
+        return packages.size();
+    }
+}
@@ -0,0 +1,48 @@
+package extdoc.jsdoc.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Template with {0}, {1}... placeholders, parsed once.
+ * Arguments are inserted as is, like MessageFormat does with strings.
+ */
+class LinkTemplate {
+
+    private final String[] parts;
+
+    // index of argument following every part, -1 after the last one
+    private final int[] args;
+
+    public LinkTemplate(String pattern) {
+        List<String> partList = new ArrayList<String>();
+        List<Integer> argList = new ArrayList<Integer>();
+        int last = 0;
+        int start;
+        while ((start = pattern.indexOf('{', last)) != -1) {
+            int end = pattern.indexOf('}', start);
+            if (end == -1) {
+                break;
+            }
+            partList.add(pattern.substring(last, start));
+            argList.add(Integer.parseInt(pattern.substring(start + 1, end)));
+            last = end + 1;
+        }
+        partList.add(pattern.substring(last));
+        argList.add(-1);
+        parts = partList.toArray(new String[partList.size()]);
+        args = new int[argList.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = argList.get(i);
+        }
+    }
+
+    public void appendTo(StringBuilder buffer, String... values) {
+        for (int i = 0; i < parts.length; i++) {
+            buffer.append(parts[i]);
+            if (args[i] != -1) {
+                buffer.append(values[args[i]]);
+            }
+        }
+    }
+}
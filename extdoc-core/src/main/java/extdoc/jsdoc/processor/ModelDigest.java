@@ -0,0 +1,161 @@
+package extdoc.jsdoc.processor;
+
+import javax.xml.bind.annotation.XmlTransient;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates digest of the data a page is generated from.
+ * Model objects are walked the same way JAXB marshals them: public
+ * fields, except ones marked with {@link XmlTransient}. So the digest
+ * of a class changes whenever anything on its page changes, including
+ * members inherited from parents and the list of subclasses.
+ */
+class ModelDigest {
+
+    private static final String DIGEST = "MD5";
+
+    private static final String ENCODING = "UTF8";
+
+    private static final Map<Class<?>, Field[]> fieldCache =
+            new ConcurrentHashMap<Class<?>, Field[]>();
+
+    private static final Comparator<Field> FIELD_ORDER =
+            new Comparator<Field>() {
+                public int compare(Field f1, Field f2) {
+                    return f1.getName().compareTo(f2.getName());
+                }
+            };
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static Field[] fields(Class<?> cls) {
+        Field[] fields = fieldCache.get(cls);
+        if (fields == null) {
+            List<Field> list = new ArrayList<Field>();
+            for (Field field : cls.getFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers)
+                        && !Modifier.isTransient(modifiers)
+                        && !field.isAnnotationPresent(XmlTransient.class)) {
+                    list.add(field);
+                }
+            }
+            fields = list.toArray(new Field[list.size()]);
+            Arrays.sort(fields, FIELD_ORDER);
+            fieldCache.put(cls, fields);
+        }
+        return fields;
+    }
+
+    private static void update(MessageDigest md, int value) {
+        md.update((byte) (value >>> 24));
+        md.update((byte) (value >>> 16));
+        md.update((byte) (value >>> 8));
+        md.update((byte) value);
+    }
+
+    private static void update(MessageDigest md, String value) {
+        try {
+            byte[] bytes = value.getBytes(ENCODING);
+            update(md, bytes.length);
+            md.update(bytes);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void walk(MessageDigest md, Object value) {
+        if (value == null) {
+            md.update((byte) 0);
+        } else if (value instanceof String || value instanceof Boolean
+                || value instanceof Number) {
+            md.update((byte) 1);
+            update(md, value.toString());
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            md.update((byte) 2);
+            update(md, list.size());
+            for (Object item : list) {
+                walk(md, item);
+            }
+        } else {
+            md.update((byte) 3);
+            for (Field field : fields(value.getClass())) {
+                try {
+                    walk(md, field.get(value));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param seed additional data page depends on, ex. template digest
+     * @param model object page is generated from
+     * @return hex digest
+     */
+    public static String digest(String seed, Object model) {
+        MessageDigest md = newDigest();
+        walk(md, seed);
+        walk(md, model);
+        return toHex(md.digest());
+    }
+
+    /**
+     * @param content data to hash
+     * @return hex digest of content
+     */
+    public static String digest(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * @param file file to read
+     * @return hex digest of file content
+     * @throws IOException if file can not be read
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest md = newDigest();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                md.update(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return toHex(md.digest());
+    }
+}
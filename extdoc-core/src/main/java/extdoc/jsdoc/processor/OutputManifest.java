@@ -0,0 +1,99 @@
+package extdoc.jsdoc.processor;
+
+import java.io.*;
+import java.util.Properties;
+
+/**
+ * Digests of the inputs every generated file was created from.
+ * Stored in output folder, lets incremental build skip files whose
+ * inputs have not changed since the previous run.
+ */
+class OutputManifest {
+
+    private static final String FORMAT_VERSION = "2";
+
+    private static final String VERSION_KEY = "version";
+
+    private final File manifestFile;
+
+    private final Properties previous = new Properties();
+
+    private final Properties current = new Properties();
+
+    public OutputManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Reads manifest of the previous run, if it can not be read all files
+     * are considered changed
+     */
+    public void load() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+        try {
+            InputStream in =
+                    new BufferedInputStream(new FileInputStream(manifestFile));
+            try {
+                previous.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            previous.clear();
+        }
+        if (!FORMAT_VERSION.equals(previous.getProperty(VERSION_KEY))) {
+            previous.clear();
+        }
+    }
+
+    /**
+     * Checks if target file was generated from the same inputs during
+     * previous run. Up to date entries are kept in manifest.
+     * @param key generated file id
+     * @param digest digest of current inputs
+     * @param target generated file
+     * @return true if file does not need to be generated again
+     */
+    public synchronized boolean isUpToDate(String key, String digest,
+                                           File target) {
+        if (digest.equals(previous.getProperty(key)) && target.exists()) {
+            current.setProperty(key, digest);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param key generated file id
+     * @return digest recorded during previous run, null if there is none
+     */
+    public String getPrevious(String key) {
+        return previous.getProperty(key);
+    }
+
+    /**
+     * Records digest of inputs target file was generated from
+     * @param key generated file id
+     * @param digest digest of inputs
+     */
+    public synchronized void update(String key, String digest) {
+        current.setProperty(key, digest);
+    }
+
+    /**
+     * Writes manifest with entries checked or updated during this run
+     * @throws IOException if manifest can not be written
+     */
+    public synchronized void save() throws IOException {
+        current.setProperty(VERSION_KEY, FORMAT_VERSION);
+        OutputStream out =
+                new BufferedOutputStream(new FileOutputStream(manifestFile));
+        try {
+            current.store(out, "ext-doc incremental build manifest");
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+
+import javax.xml.transform.TransformerException;
+import java.io.OutputStream;
+
+/**
+ * Renders class pages. Renderer is shared by all threads rendering pages.
+ */
+interface PageRenderer {
+
+    /**
+     * Renders page of one class on the calling thread
+     * @param docClass class to render
+     * @param out stream page is written to, it is not closed
+     * @throws TransformerException if page can not be rendered, message
+     * contains name of the class
+     */
+    void render(DocClass docClass, OutputStream out)
+            throws TransformerException;
+}
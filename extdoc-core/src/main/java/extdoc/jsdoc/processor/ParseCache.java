@@ -0,0 +1,224 @@
+package extdoc.jsdoc.processor;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps comments parsed from source files between runs.
+ * Entry is keyed by path, file attributes and content hash. File whose
+ * size, modification and status change times are the same is not read
+ * at all. Otherwise it is read and hashed, and parsed again only if its
+ * content has changed. Status change time catches edits that restore
+ * size and modification time (ex. cp -p, tar or rsync), on file systems
+ * without it such edits are noticed only when file is hashed.
+ * Comments are kept as parsed, tags are processed on every run.
+ * Safe to use from several threads.
+ */
+class ParseCache {
+
+    private static final int FORMAT_VERSION = 4;
+
+    // status change time attribute of unix file systems
+    private static final String CHANGE_TIME = "unix:ctime";
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 2L;
+
+        long size;
+        // times in nanoseconds
+        long modified;
+        // status change time, -1 if file system does not report it
+        long changed;
+        // time attributes were read
+        long checked;
+        String hash;
+        List<ParsedComment> comments;
+    }
+
+    private final File cacheFile;
+
+    private Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    // entries used during this run, only these are saved
+    private Map<String, Entry> used =
+            new ConcurrentHashMap<String, Entry>();
+
+    private int hits = 0;
+
+    /**
+     * @param cacheFile file cache is stored in, null if cache is kept only
+     * in memory
+     */
+    public ParseCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Starts next run with entries used during the previous one
+     */
+    public synchronized void nextRun() {
+        entries = new HashMap<String, Entry>(used);
+        used = new ConcurrentHashMap<String, Entry>();
+        hits = 0;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * Reads cache file
+     * @return false if cache file exists but can not be read, in this case
+     * cache stays empty
+     */
+    @SuppressWarnings("unchecked")
+    public boolean load() {
+        if (cacheFile == null || !cacheFile.exists()) {
+            return true;
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(cacheFile)));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return false;
+                }
+                entries = (Map<String, Entry>) in.readObject();
+            } finally {
+                in.close();
+            }
+            return true;
+        } catch (IOException e) {
+            // corrupted or written by incompatible version
+            return false;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes entries used during this run to cache file
+     * @throws IOException if cache file can not be written
+     */
+    public void save() throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+        File dir = cacheFile.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        File tmp = new File(dir, cacheFile.getName() + ".tmp");
+        ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeObject(new HashMap<String, Entry>(used));
+        } finally {
+            out.close();
+        }
+        cacheFile.delete();
+        if (!tmp.renameTo(cacheFile)) {
+            throw new IOException("Can not write " + cacheFile);
+        }
+    }
+
+    /**
+     * @return current time, attributes changed in the same second may
+     * not differ from attributes read during this second
+     */
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Entry readAttributes(File file) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes =
+                Files.readAttributes(path, BasicFileAttributes.class);
+        Entry entry = new Entry();
+        entry.checked = currentTimeMillis();
+        entry.size = attributes.size();
+        entry.modified = attributes.lastModifiedTime()
+                .to(TimeUnit.NANOSECONDS);
+        entry.changed = -1;
+        try {
+            entry.changed = ((FileTime) Files.getAttribute(path, CHANGE_TIME))
+                    .to(TimeUnit.NANOSECONDS);
+        } catch (UnsupportedOperationException e) {
+            // not a unix file system
+        } catch (IllegalArgumentException e) {
+            // not a unix file system
+        }
+        return entry;
+    }
+
+    private static boolean isUnchanged(Entry entry, Entry current) {
+        // time of a change made in the second attributes were read
+        // may be the same as before the change
+        long checked = TimeUnit.MILLISECONDS.toSeconds(entry.checked);
+        return entry.size == current.size &&
+                entry.modified == current.modified &&
+                entry.changed == current.changed &&
+                TimeUnit.NANOSECONDS.toSeconds(entry.modified) < checked &&
+                TimeUnit.NANOSECONDS.toSeconds(entry.changed) < checked;
+    }
+
+    private static ParsedFile toParsedFile(File file, Entry entry) {
+        ParsedFile parsedFile = new ParsedFile();
+        parsedFile.file = file;
+        parsedFile.comments = entry.comments;
+        parsedFile.hash = entry.hash;
+        return parsedFile;
+    }
+
+    /**
+     * Returns cached comments of the file or parses it if its content has
+     * changed
+     * @param file source file
+     * @param parser parser used if file has changed
+     * @return parsed file with content hash, size is 0 if file was not
+     * read
+     * @throws IOException if file can not be read
+     */
+    public ParsedFile parse(File file, SourceParser parser)
+            throws IOException {
+        String key = file.getAbsolutePath();
+        Entry entry = entries.get(key);
+        // attributes are read first, so change made while file is read
+        // is noticed next time
+        Entry current = readAttributes(file);
+        if (entry != null && isUnchanged(entry, current)) {
+            used.put(key, entry);
+            hit();
+            return toParsedFile(file, entry);
+        }
+        byte[] content = parser.read(file);
+        current.hash = ModelDigest.digest(content);
+        ParsedFile parsedFile;
+        if (entry != null && entry.hash.equals(current.hash)) {
+            // only attributes have changed
+            hit();
+            current.comments = entry.comments;
+            parsedFile = toParsedFile(file, current);
+            parsedFile.size = content.length;
+        } else {
+            parsedFile = parser.parse(file, content);
+            parsedFile.hash = current.hash;
+            current.comments = parsedFile.comments;
+        }
+        used.put(key, current);
+        return parsedFile;
+    }
+
+    private synchronized void hit() {
+        hits++;
+    }
+}
@@ -0,0 +1,20 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.tags.impl.Comment;
+
+import java.io.Serializable;
+
+/**
+ * Comment found in source file together with the code following it.
+ * Produced by {@link SourceParser}, consumed by
+ * {@link FileProcessorImpl} when the file is merged into context.
+ */
+class ParsedComment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public Comment comment;
+    public String extraLine;
+    public String extra2Line;
+    public long position;
+}
@@ -0,0 +1,19 @@
+package extdoc.jsdoc.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of parsing one source file: comments in the order they
+ * should be processed. Does not depend on context, so files can be
+ * parsed independently and merged later.
+ */
+class ParsedFile {
+    public File file;
+    // hex digest of file content, null if it was not calculated
+    String hash;
+    // number of bytes read from file
+    long size;
+    List<ParsedComment> comments = new ArrayList<ParsedComment>();
+}
@@ -0,0 +1,85 @@
+package extdoc.jsdoc.processor;
+
+/**
+ * Collects plain text version of html description.
+ * Tags are removed the same way replaceAll("<\\S*?>", "") does: from "<"
+ * to the first ">" if there is no white space between them.
+ * Collecting stops when text is longer than limit, as only the beginning
+ * of the text is used.
+ */
+class PlainTextCollector {
+
+    private final int limit;
+
+    private final StringBuilder text = new StringBuilder();
+
+    // possible tag, starts with "<"
+    private final StringBuilder tag = new StringBuilder();
+
+    public PlainTextCollector(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return true if text is longer than limit
+     */
+    public boolean isFull() {
+        return text.length() > limit;
+    }
+
+    private static boolean isWhite(char ch) {
+        // \s in regular expressions
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B'
+                || ch == '\f' || ch == '\r';
+    }
+
+    private void append(char ch) {
+        if (tag.length() == 0) {
+            if (ch == '<') {
+                tag.append(ch);
+            } else {
+                text.append(ch);
+            }
+        } else if (ch == '>') {
+            tag.setLength(0);
+        } else if (isWhite(ch)) {
+            notTag();
+            append(ch);
+        } else {
+            tag.append(ch);
+        }
+    }
+
+    /**
+     * Buffered "<" does not start a tag, characters after it are
+     * processed again
+     */
+    private void notTag() {
+        String rest = tag.substring(1);
+        tag.setLength(0);
+        text.append('<');
+        for (int i = 0; i < rest.length(); i++) {
+            append(rest.charAt(i));
+        }
+    }
+
+    public void append(CharSequence str, int start, int end) {
+        for (int i = start; i < end && !isFull(); i++) {
+            append(str.charAt(i));
+        }
+    }
+
+    public void append(CharSequence str) {
+        append(str, 0, str.length());
+    }
+
+    /**
+     * @return collected text, at most limit + 1 characters
+     */
+    public String getText() {
+        while (tag.length() > 0 && !isFull()) {
+            notTag();
+        }
+        return isFull() ? text.substring(0, limit + 1) : text.toString();
+    }
+}
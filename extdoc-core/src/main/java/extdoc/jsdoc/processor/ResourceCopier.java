@@ -0,0 +1,249 @@
+package extdoc.jsdoc.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Copies template resources to output folder on several threads.
+ * Manifest keeps size, modification time and hash of every source and
+ * size and modification time of its copy, so file is copied again only
+ * if its content or the copy itself has changed. Source is hashed only
+ * if its size or modification time differ from the recorded ones.
+ * Files may be hard linked instead of copied, if link can not be
+ * created file is copied. Archive is written one entry at a time, so
+ * resources are added to it on the calling thread, without manifest.
+ */
+class ResourceCopier {
+
+    private static final String KEY_PREFIX = "resource:";
+
+    private static final char SEPARATOR = ':';
+
+    private final DocOutput output;
+
+    private final OutputManifest manifest;
+
+    private final int threads;
+
+    private final boolean link;
+
+    private final BuildStats stats;
+
+    private static class Resource {
+        final File src;
+        // path in output
+        final String path;
+
+        Resource(File src, String path) {
+            this.src = src;
+            this.path = path;
+        }
+    }
+
+    private final List<Resource> files = new ArrayList<Resource>();
+
+    private int copied = 0;
+
+    private int linked = 0;
+
+    private volatile boolean linkFailed = false;
+
+    /**
+     * @param output output resources are copied to
+     * @param manifest copies made during previous run, null if output is
+     * not a folder
+     * @param threads number of threads used to copy
+     * @param link true to hard link files instead of copying them
+     * @param stats build statistics
+     */
+    public ResourceCopier(DocOutput output, OutputManifest manifest,
+                          int threads, boolean link, BuildStats stats) {
+        this.output = output;
+        this.manifest = manifest;
+        this.threads = threads;
+        this.link = link;
+        this.stats = stats;
+    }
+
+    /**
+     * Adds file or folder to copy, hidden files are skipped. Target
+     * folders are created at once.
+     * @param src file or folder to copy
+     * @param path path of the copy in output
+     */
+    public void add(File src, String path) {
+        // skip hidden
+        if (src.isHidden()) {
+            return;
+        }
+        if (src.isDirectory()) {
+            File dir = target(path);
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            String[] children = src.list();
+            if (children != null) {
+                for (String child : children) {
+                    add(new File(src, child),
+                            path.length() == 0 ? child : path + '/' + child);
+                }
+            }
+        } else {
+            files.add(new Resource(src, path));
+        }
+    }
+
+    public synchronized int getCopied() {
+        return copied;
+    }
+
+    public synchronized int getLinked() {
+        return linked;
+    }
+
+    public int getTotal() {
+        return files.size();
+    }
+
+    /**
+     * @return file in output folder, null if output is not a folder
+     */
+    private File target(String path) {
+        File root = output.getFolder();
+        return root != null ?
+                new File(root, path.replace('/', File.separatorChar)) : null;
+    }
+
+    private static String stamp(File file) {
+        return String.valueOf(file.length()) + SEPARATOR
+                + file.lastModified();
+    }
+
+    /**
+     * Copies one file unless its copy is up to date
+     */
+    private void copy(File src, String path) throws IOException {
+        File dst = target(path);
+        if (dst == null) {
+            output.copy(src, path);
+            synchronized (this) {
+                copied++;
+            }
+            return;
+        }
+        String key = KEY_PREFIX + path;
+        String srcStamp = stamp(src);
+        // size:modified:hash of source, size:modified of copy
+        String previous = manifest.getPrevious(key);
+        String[] fields = previous != null ?
+                previous.split(String.valueOf(SEPARATOR)) : null;
+        if (fields != null && fields.length != 5) {
+            fields = null;
+        }
+        String hash;
+        if (fields != null &&
+                srcStamp.equals(fields[0] + SEPARATOR + fields[1])) {
+            hash = fields[2];
+        } else {
+            hash = ModelDigest.digest(src);
+        }
+        String prefix = srcStamp + SEPARATOR + hash + SEPARATOR;
+        if (fields != null && hash.equals(fields[2]) && dst.isFile() &&
+                stamp(dst).equals(fields[3] + SEPARATOR + fields[4])) {
+            manifest.update(key, prefix + stamp(dst));
+            output.written(path);
+            return;
+        }
+        Path dstPath = dst.toPath();
+        if (link && createLink(src.toPath(), dstPath)) {
+            synchronized (this) {
+                linked++;
+            }
+        } else {
+            Files.copy(src.toPath(), dstPath,
+                    StandardCopyOption.REPLACE_EXISTING);
+            stats.bytesWritten(dst.length());
+            synchronized (this) {
+                copied++;
+            }
+        }
+        manifest.update(key, prefix + stamp(dst));
+        output.written(path);
+    }
+
+    /**
+     * @return false if link can not be created, ex. when output is on
+     * another file system
+     */
+    private boolean createLink(Path src, Path dst) {
+        if (linkFailed) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(dst);
+            Files.createLink(dst, src);
+            return true;
+        } catch (IOException e) {
+            linkFailed = true;
+        } catch (UnsupportedOperationException e) {
+            linkFailed = true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies all files added
+     * @throws IOException if one of files can not be copied
+     */
+    public void copy() throws IOException {
+        if (threads <= 1 || files.size() <= 1 || !output.isConcurrent()) {
+            for (Resource file : files) {
+                copy(file.src, file.path);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> done =
+                    new ArrayList<Future<Void>>(files.size());
+            for (final Resource file : files) {
+                done.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        long cpuStart = stats.threadCpuTime();
+                        try {
+                            copy(file.src, file.path);
+                        } finally {
+                            stats.workDone(BuildStats.RESOURCE_COPY,
+                                    stats.threadCpuTime() - cpuStart);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : done) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.*;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Search index of classes and members used by the search field of
+ * documentation. Index is split to shards: one JSON file for every pair
+ * of characters found in names, with items whose names contain the pair,
+ * so browser loads only the shard for the first two characters of the
+ * query and filters it locally. One character shards list items whose
+ * names start with the character, they answer one character queries.
+ * Names are lower cased, characters other than letters and digits are
+ * replaced with "_" in shard names.
+ */
+class SearchIndex {
+
+    private static final String ENCODING = "UTF8";
+
+    private static final String SHARD_EXTENSION = ".json";
+
+    // files written by save(), with compressed copies
+    private static final Pattern INDEX_FILE = Pattern.compile(
+            "[a-z0-9_]{1,2}\\.json(\\.gz)?");
+
+    private static final String TYPE_CLASS = "cls";
+    private static final String TYPE_CFG = "config";
+    private static final String TYPE_PROPERTY = "prop";
+    private static final String TYPE_METHOD = "method";
+    private static final String TYPE_EVENT = "event";
+
+    private final int descrMaxLength;
+
+    // shard name -> comma separated items
+    private final Map<String, StringBuilder> shards =
+            new TreeMap<String, StringBuilder>();
+
+    private int size = 0;
+
+    /**
+     * @param descrMaxLength maximum length of description in index
+     */
+    public SearchIndex(int descrMaxLength) {
+        this.descrMaxLength = descrMaxLength;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private static char keyChar(char ch) {
+        char lower = Character.toLowerCase(ch);
+        return (lower >= 'a' && lower <= 'z') || (lower >= '0' && lower <= '9') ?
+                lower : '_';
+    }
+
+    static void appendJson(StringBuilder sb, String str) {
+        sb.append('"');
+        if (str != null) {
+            for (int i = 0; i < str.length(); i++) {
+                char ch = str.charAt(i);
+                switch (ch) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        // line separators break eval() of JSON
+                        if (ch < 0x20 || ch == '\u2028' || ch == '\u2029') {
+                            sb.append(String.format("\\u%04x", (int) ch));
+                        } else {
+                            sb.append(ch);
+                        }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * @return plain text description, shortened if needed
+     */
+    private String plainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        PlainTextCollector plain = new PlainTextCollector(descrMaxLength);
+        plain.append(html);
+        String text = plain.getText();
+        return text.length() > descrMaxLength ?
+                text.substring(0, descrMaxLength) + "..." : text;
+    }
+
+    private String descr(Description description) {
+        if (description == null) {
+            return "";
+        }
+        return description.hasShort && description.shortDescr != null ?
+                description.shortDescr : plainText(description.longDescr);
+    }
+
+    private void add(String cls, String member, String type, String doc) {
+        if (member == null || member.length() == 0) {
+            return;
+        }
+        StringBuilder item = new StringBuilder();
+        item.append("{\"cls\":");
+        appendJson(item, cls);
+        item.append(",\"member\":");
+        appendJson(item, member);
+        item.append(",\"type\":");
+        appendJson(item, type);
+        item.append(",\"doc\":");
+        appendJson(item, doc);
+        item.append('}');
+
+        // first character and every pair of characters once
+        Set<String> keys = new HashSet<String>();
+        keys.add(String.valueOf(keyChar(member.charAt(0))));
+        for (int i = 0; i + 1 < member.length(); i++) {
+            keys.add(new String(new char[]{
+                    keyChar(member.charAt(i)), keyChar(member.charAt(i + 1))}));
+        }
+        for (String key : keys) {
+            StringBuilder shard = shards.get(key);
+            if (shard == null) {
+                shard = new StringBuilder();
+                shards.put(key, shard);
+            } else {
+                shard.append(',');
+            }
+            shard.append(item);
+        }
+        size++;
+    }
+
+    private <T extends DocAttribute> void addMembers(DocClass cls,
+                                                     List<T> members,
+                                                     String type) {
+        for (T member : members) {
+            // inherited members are indexed with their own class
+            if (cls.className.equals(member.className)) {
+                add(cls.className, member.name, type,
+                        descr(member.description));
+            }
+        }
+    }
+
+    public void addClass(DocClass cls) {
+        add(cls.className, cls.shortClassName, TYPE_CLASS,
+                plainText(cls.description));
+        addMembers(cls, cls.cfgs, TYPE_CFG);
+        addMembers(cls, cls.properties, TYPE_PROPERTY);
+        addMembers(cls, cls.methods, TYPE_METHOD);
+        addMembers(cls, cls.events, TYPE_EVENT);
+    }
+
+    private static String toJson(StringBuilder shard) {
+        return new StringBuilder(shard.length() + 12)
+                .append("{\"data\":[")
+                .append(shard)
+                .append("]}")
+                .toString();
+    }
+
+    /**
+     * @param fileName name of shard, ex. "ab.json"
+     * @return content of shard or null if there is no such shard
+     */
+    public String getFile(String fileName) {
+        if (!fileName.endsWith(SHARD_EXTENSION)) {
+            return null;
+        }
+        StringBuilder shard = shards.get(fileName.substring(0,
+                fileName.length() - SHARD_EXTENSION.length()));
+        return shard != null ? toJson(shard) : null;
+    }
+
+    private static void write(DocOutput output, String dir, String name,
+                              StringBuilder data) throws IOException {
+        Writer out = new OutputStreamWriter(output.open(
+                dir.length() == 0 ? name : dir + '/' + name), ENCODING);
+        try {
+            out.write(toJson(data));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes shards to output, shards of the previous build
+     * that are not needed any more are removed from output folder
+     * @param output output documentation is written to
+     * @param dir path of the target folder in output
+     * @throws IOException if file can not be written
+     */
+    public void save(DocOutput output, String dir) throws IOException {
+        Set<String> names = new HashSet<String>();
+        for (Map.Entry<String, StringBuilder> e : shards.entrySet()) {
+            String name = e.getKey() + SHARD_EXTENSION;
+            write(output, dir, name, e.getValue());
+            names.add(name);
+        }
+        removeStale(output, dir, names);
+    }
+
+    /**
+     * Removes index files not written by this build, other files in the
+     * folder are kept. Archive is written from scratch, so it has no stale
+     * files.
+     */
+    private static void removeStale(DocOutput output, String dir,
+                                    Set<String> names) {
+        File folder = output.getFolder();
+        if (folder == null) {
+            return;
+        }
+        File[] files = (dir.length() == 0 ? folder : new File(folder, dir))
+                .listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            String original = name.endsWith(".gz") ?
+                    name.substring(0, name.length() - 3) : name;
+            if (file.isFile() && INDEX_FILE.matcher(name).matches() &&
+                    !names.contains(original)) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.tags.impl.Comment;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Extracts doc comments from source file. File is read at once and
+ * scanned by index, so parsing cost does not depend on the number of
+ * characters appended to temporary buffers. Keeps no state between
+ * files, so one instance may be used from several threads.
+ */
+class SourceParser {
+
+    private static final String ENCODING = "UTF8";
+
+    private final Charset charset = Charset.forName(ENCODING);
+
+    private static final String START_COMMENT = "/**";
+    private static final String END_COMMENT = "*/";
+
+    /**
+     * Checks if char is white space in terms of extra line of code after
+     * comments
+     * @param ch character
+     * @return true if space or new line or * or / or ' etc...
+     */
+    private boolean isWhite(char ch){
+        return !Character.isLetterOrDigit(ch) && ch!='.' && ch!='_';
+    }
+
+    /**
+     * Reads whole file at once
+     * @param file source file
+     * @return file content
+     * @throws IOException if file can not be read
+     */
+    byte[] read(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        int len = 0;
+        InputStream in = new FileInputStream(file);
+        try {
+            int numRead;
+            while (len < content.length && (numRead =
+                    in.read(content, len, content.length - len)) != -1) {
+                len += numRead;
+            }
+        } finally {
+            in.close();
+        }
+        if (len < content.length) {
+            // file has been truncated since its length was taken
+            byte[] read = new byte[len];
+            System.arraycopy(content, 0, read, 0, len);
+            content = read;
+        }
+        return content;
+    }
+
+    private static int indexOf(char[] text, String str, int from, int to) {
+        char first = str.charAt(0);
+        int strLen = str.length();
+        int max = to - strLen;
+        for (int i = from; i <= max; i++) {
+            if (text[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < strLen && text[i + j] == str.charAt(j)) {
+                j++;
+            }
+            if (j == strLen) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds comment with first two words of the code between the end of
+     * comment and the start of the next one
+     */
+    private void addComment(ParsedFile parsedFile, char[] text,
+                            int start, int end, int codeStart, int codeEnd,
+                            long position){
+        int i = codeStart;
+        while (i < codeEnd && isWhite(text[i])) i++;
+        int extraStart = i;
+        while (i < codeEnd && !isWhite(text[i])) i++;
+        int extraEnd = i;
+        while (i < codeEnd && isWhite(text[i])) i++;
+        int extra2Start = i;
+        while (i < codeEnd && !isWhite(text[i])) i++;
+        ParsedComment parsedComment = new ParsedComment();
+        parsedComment.comment = new Comment(
+                new String(text, start, end - start));
+        parsedComment.extraLine =
+                new String(text, extraStart, extraEnd - extraStart);
+        parsedComment.extra2Line =
+                new String(text, extra2Start, i - extra2Start);
+        parsedComment.position = position;
+        parsedFile.comments.add(parsedComment);
+    }
+
+    /**
+     * Finds comments in one file.
+     * Comment starts with "/**" and ends with first "*" + "/" following it,
+     * characters of start sequence can not be reused by end sequence.
+     * Unterminated comment at the end of file is ignored.
+     *
+     * @param file Source Code file
+     * @return comments found in file
+     * @throws IOException if file can not be read
+     */
+    public ParsedFile parse(File file) throws IOException {
+        return parse(file, read(file));
+    }
+
+    /**
+     * Finds comments in content of source file already read
+     * @param file Source Code file
+     * @param content file content in UTF-8
+     * @return comments found in file
+     */
+    public ParsedFile parse(File file, byte[] content) {
+        ParsedFile parsedFile = new ParsedFile();
+        parsedFile.file = file;
+        parsedFile.size = content.length;
+        CharBuffer buffer = charset.decode(ByteBuffer.wrap(content));
+        char[] text = buffer.array();
+        int len = buffer.limit();
+        // content of the previous comment and position of its start
+        int start = -1;
+        int end = -1;
+        long position = 0;
+        int codeStart = 0;
+        while (true) {
+            int next = indexOf(text, START_COMMENT, codeStart, len);
+            if (next == -1) {
+                break;
+            }
+            if (start != -1) {
+                addComment(parsedFile, text, start, end, codeStart, next,
+                        position);
+            }
+            // positions are counted from 1
+            position = next + 1;
+            start = next + START_COMMENT.length();
+            end = indexOf(text, END_COMMENT, start, len);
+            if (end == -1) {
+                start = -1;
+                break;
+            }
+            codeStart = end + END_COMMENT.length();
+        }
+        if (start != -1) {
+            addComment(parsedFile, text, start, end, codeStart, len,
+                    position);
+        }
+        return parsedFile;
+    }
+}
@@ -0,0 +1,163 @@
+package extdoc.jsdoc.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Waits for changes in source folders, template folder and single files
+ * like project XML. WatchService is not recursive, so every folder of
+ * watched trees is registered, new folders are registered when created.
+ */
+class SourceWatcher {
+
+    // events following the first one are collected for this time
+    private static final long QUIET_PERIOD = 100;
+
+    private final WatchService watchService;
+
+    // folders registered as part of a tree
+    private final Map<WatchKey, Path> trees = new HashMap<WatchKey, Path>();
+
+    // folders registered for single files, with names of these files
+    private final Map<WatchKey, Set<Path>> files =
+            new HashMap<WatchKey, Set<Path>>();
+
+    private final List<Path> ignored = new ArrayList<Path>();
+
+    public SourceWatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    private static Path path(File file) {
+        return file.getAbsoluteFile().toPath().normalize();
+    }
+
+    /**
+     * Watches folder with all its sub folders
+     * @param dir folder, if it is a file only the file is watched
+     * @throws IOException if folder can not be watched
+     */
+    public void watchTree(File dir) throws IOException {
+        if (!dir.isDirectory()) {
+            watchFile(dir);
+            return;
+        }
+        Files.walkFileTree(path(dir), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir,
+                    BasicFileAttributes attrs) throws IOException {
+                if (isIgnored(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                registerTree(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        trees.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY,
+                ENTRY_DELETE), dir);
+    }
+
+    /**
+     * Watches single file
+     * @param file file
+     * @throws IOException if folder of the file can not be watched
+     */
+    public void watchFile(File file) throws IOException {
+        Path path = path(file);
+        WatchKey key = path.getParent().register(watchService,
+                ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        Set<Path> names = files.get(key);
+        if (names == null) {
+            names = new HashSet<Path>();
+            files.put(key, names);
+        }
+        names.add(path.getFileName());
+    }
+
+    /**
+     * Changes inside this folder are ignored, ex. output folder
+     * @param dir folder
+     */
+    public void ignore(File dir) {
+        ignored.add(path(dir));
+    }
+
+    private boolean isIgnored(Path path) {
+        for (Path dir : ignored) {
+            if (path.startsWith(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects changes of one key
+     * @return false if key is no longer valid
+     */
+    private boolean poll(WatchKey key, Set<File> changed) throws IOException {
+        Path tree = trees.get(key);
+        Set<Path> names = files.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // events lost, consider whole folder changed
+                if (tree != null) {
+                    changed.add(tree.toFile());
+                }
+                continue;
+            }
+            Path name = (Path) event.context();
+            Path dir = tree != null ? tree : (Path) key.watchable();
+            Path path = dir.resolve(name);
+            if (isIgnored(path)) {
+                continue;
+            }
+            boolean watched = tree != null
+                    || (names != null && names.contains(name));
+            if (!watched) {
+                continue;
+            }
+            changed.add(path.toFile());
+            if (tree != null && event.kind() == ENTRY_CREATE
+                    && Files.isDirectory(path)) {
+                watchTree(path.toFile());
+            }
+        }
+        return key.reset();
+    }
+
+    /**
+     * Blocks until watched files change
+     * @return changed files and folders
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IOException if new folder can not be watched
+     */
+    public Set<File> awaitChanges() throws InterruptedException, IOException {
+        Set<File> changed = new TreeSet<File>();
+        while (changed.isEmpty()) {
+            WatchKey key = watchService.take();
+            // editors write several events for one save
+            do {
+                if (!poll(key, changed)) {
+                    trees.remove(key);
+                    files.remove(key);
+                }
+                key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+            } while (key != null);
+        }
+        return changed;
+    }
+
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,296 @@
+package extdoc.jsdoc.processor;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.*;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps compiled stylesheets between runs. XSLTC compiles stylesheet to
+ * translet classes and its templates, holding their bytecode, are
+ * serializable, so they are stored in cache folder and read back instead
+ * of compiling the stylesheet again. Entry is keyed by hash of the
+ * stylesheet and of all stylesheets it imports or includes, so it is
+ * replaced when any of them changes. Templates that are not serializable
+ * and stylesheets importing something other than local files are kept
+ * only in memory. Safe to use from several threads.
+ */
+class TemplatesCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String EXTENSION = ".templates";
+
+    private static final String XSL_NAMESPACE =
+            "http://www.w3.org/1999/XSL/Transform";
+
+    // null if templates are kept only in memory
+    private final File cacheDir;
+
+    // templates compiled or read during this process, by key
+    private final Map<String, Templates> loaded =
+            new HashMap<String, Templates>();
+
+    private int hits = 0;
+
+    /**
+     * @param cacheDir folder templates are stored in, null if they are
+     * kept only in memory
+     */
+    public TemplatesCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @return number of templates taken from cache instead of compiling
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns compiled stylesheet, compiles it only if cache has no up to
+     * date entry
+     * @param factory factory compiling stylesheet
+     * @param stylesheet stylesheet file
+     * @return compiled stylesheet
+     * @throws TransformerConfigurationException if stylesheet can not be
+     * compiled
+     */
+    public synchronized Templates get(TransformerFactory factory,
+                                      File stylesheet)
+            throws TransformerConfigurationException {
+        String key = key(factory, stylesheet);
+        if (key == null) {
+            return compile(factory, stylesheet);
+        }
+        Templates templates = loaded.get(key);
+        if (templates != null) {
+            hits++;
+            return templates;
+        }
+        File file = null;
+        if (cacheDir != null) {
+            file = new File(cacheDir, prefix(stylesheet) + key + EXTENSION);
+            templates = read(file);
+        }
+        if (templates != null) {
+            hits++;
+        } else {
+            templates = compile(factory, stylesheet);
+            if (file != null && templates instanceof Serializable) {
+                write(file, templates);
+                removeStale(stylesheet, file);
+            }
+        }
+        loaded.put(key, templates);
+        return templates;
+    }
+
+    private static Templates compile(TransformerFactory factory,
+                                     File stylesheet)
+            throws TransformerConfigurationException {
+        return factory.newTemplates(new StreamSource(stylesheet));
+    }
+
+    /**
+     * @return name entries of the stylesheet start with, stylesheets of
+     * different templates get different names
+     */
+    private static String prefix(File stylesheet) {
+        String name = stylesheet.getName();
+        int dot = name.lastIndexOf('.');
+        String path = ModelDigest.digest(
+                stylesheet.getAbsolutePath(), null);
+        return (dot > 0 ? name.substring(0, dot) : name) + '-' +
+                path.substring(0, 8) + '-';
+    }
+
+    /**
+     * @return hash of the stylesheet, stylesheets it imports, transformer
+     * factory and Java version, null if stylesheet imports something
+     * other than local file or can not be read
+     */
+    private static String key(TransformerFactory factory, File stylesheet) {
+        List<String> parts = new ArrayList<String>();
+        try {
+            if (!addStylesheet(stylesheet.getAbsoluteFile(), parts,
+                    new HashSet<File>())) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return ModelDigest.digest(factory.getClass().getName() + ':' +
+                System.getProperty("java.version"), parts);
+    }
+
+    /**
+     * Pages depend on the stylesheet and on all stylesheets it imports or
+     * includes. Imports other than local files are hashed by their
+     * address only.
+     * @param stylesheet stylesheet file
+     * @return hash of the stylesheet and of local stylesheets it imports
+     * @throws IOException if one of stylesheets can not be read
+     */
+    public static String digest(File stylesheet) throws IOException {
+        List<String> parts = new ArrayList<String>();
+        addStylesheet(stylesheet.getAbsoluteFile(), parts,
+                new HashSet<File>());
+        return ModelDigest.digest(null, parts);
+    }
+
+    /**
+     * Adds digests of stylesheet and of stylesheets it imports or
+     * includes, addresses of imports other than local files are added
+     * as they are
+     * @return false if stylesheet imports something other than local file
+     */
+    private static boolean addStylesheet(File stylesheet, List<String> parts,
+                                         Set<File> visited)
+            throws IOException {
+        if (!visited.add(stylesheet)) {
+            return true;
+        }
+        parts.add(stylesheet.getPath());
+        parts.add(ModelDigest.digest(stylesheet));
+        boolean local = true;
+        for (String href : imports(stylesheet)) {
+            URI uri;
+            try {
+                uri = stylesheet.toURI().resolve(href);
+            } catch (IllegalArgumentException e) {
+                parts.add(href);
+                local = false;
+                continue;
+            }
+            File imported = "file".equals(uri.getScheme()) ?
+                    new File(uri) : null;
+            if (imported == null || !imported.isFile()) {
+                parts.add(uri.toString());
+                local = false;
+            } else if (!addStylesheet(imported, parts, visited)) {
+                local = false;
+            }
+        }
+        return local;
+    }
+
+    /**
+     * @return href attributes of xsl:import and xsl:include elements
+     */
+    private static List<String> imports(File stylesheet) throws IOException {
+        final List<String> hrefs = new ArrayList<String>();
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            factory.newSAXParser().parse(stylesheet, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName,
+                                         String qName, Attributes attributes) {
+                    if (XSL_NAMESPACE.equals(uri) &&
+                            ("import".equals(localName) ||
+                                    "include".equals(localName))) {
+                        String href = attributes.getValue("href");
+                        if (href != null) {
+                            hrefs.add(href);
+                        }
+                    }
+                }
+            });
+        } catch (SAXException e) {
+            throw new IOException(e);
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+        return hrefs;
+    }
+
+    /**
+     * @return templates, null if entry does not exist or can not be read
+     */
+    private static Templates read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                return (Templates) in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // corrupted or written by incompatible version
+        } catch (ClassNotFoundException e) {
+            // written by another XSLT processor
+        } catch (ClassCastException e) {
+            // not templates
+        } catch (RuntimeException e) {
+            // processor refuses to read templates, ex. under security manager
+        }
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Writes entry, cache stays as it is if entry can not be written
+     */
+    private static void write(File file, Templates templates) {
+        File dir = file.getParentFile();
+        dir.mkdirs();
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(FORMAT_VERSION);
+                out.writeObject(templates);
+            } finally {
+                out.close();
+            }
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Removes previous entries of the stylesheet
+     */
+    private void removeStale(File stylesheet, File current) {
+        String prefix = prefix(stylesheet);
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(prefix) && name.endsWith(EXTENSION) &&
+                    !file.equals(current)) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.CfgTag;
  */
 class CfgTagImpl extends TagImpl implements CfgTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String cfgName;
 
     private String cfgType;
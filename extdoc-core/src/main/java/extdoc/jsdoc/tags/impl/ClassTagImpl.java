@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.ClassTag;
  */
 class ClassTagImpl extends TagImpl implements ClassTag {
 
+    private static final long serialVersionUID = 1L;
+
     String className;
 
     String classDescription;
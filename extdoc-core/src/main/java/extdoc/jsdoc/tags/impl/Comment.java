@@ -2,7 +2,9 @@ package extdoc.jsdoc.tags.impl;
 
 import extdoc.jsdoc.tags.Tag;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,43 +15,127 @@ import java.util.Map;
  * Time: 21:41:31
  */
 
-public class Comment {
+public class Comment implements Serializable {
 
-    public static Map<String, Integer> allTags
-            = new HashMap<String, Integer>();
+    private static final long serialVersionUID = 1L;
 
-    private final List<Tag> tagList = new ArrayList<Tag>();
+    // tags in order of appearance, grouped by name
+    private final Map<KnownTag, List<Tag>> knownTags =
+            new EnumMap<KnownTag, List<Tag>>(KnownTag.class);
+
+    private final Map<String, List<Tag>> customTags =
+            new HashMap<String, List<Tag>>();
 
     private String description;
 
+    private CommentType type;
+
     public String getDescription() {
         return description;
     }
 
+    /**
+     * Type of comment if it can be decided by its tags
+     * @return comment type or null if it depends on the code following
+     * the comment
+     */
+    public CommentType getType() {
+        return type;
+    }
+
+    private List<Tag> find(String tagName){
+        KnownTag knownTag = KnownTag.forName(tagName);
+        return knownTag != null ?
+                knownTags.get(knownTag) : customTags.get(tagName);
+    }
+
     @SuppressWarnings("unchecked")
-    public <T extends Tag>  T tag(String tagName){
-        for(Tag tag: tagList){
-            if (tag.name().equals(tagName)) return (T)tag;
-        }
-        return null;
+    private static <T extends Tag> T first(List<Tag> found){
+        return found != null ? (T) found.get(0) : null;
     }
 
     @SuppressWarnings("unchecked")
+    private static <T extends Tag> List<T> all(List<Tag> found){
+        return found != null ?
+                new ArrayList<T>((List<T>) (List<?>) found) :
+                new ArrayList<T>();
+    }
+
+    public <T extends Tag>  T tag(KnownTag tagName){
+        return Comment.<T>first(knownTags.get(tagName));
+    }
+
+    public <T extends Tag>  T tag(String tagName){
+        return Comment.<T>first(find(tagName));
+    }
+
+    public <T extends Tag> List<T> tags(KnownTag tagName){
+        return Comment.<T>all(knownTags.get(tagName));
+    }
+
     public <T extends Tag> List<T> tags(String tagName){
-        List<T> found = new ArrayList<T>();
-        for(Tag tag : tagList){
-            if (tag.name().equals(tagName)){
-                found.add((T) tag);
+        return Comment.<T>all(find(tagName));
+    }
+
+    public boolean hasTag(KnownTag tagName){
+        return knownTags.containsKey(tagName);
+    }
+
+    public boolean hasTag(String tagName){
+        return find(tagName) != null;
+    }
+
+    /**
+     * Adds number of times every tag is found in this comment to counts
+     * @param counts number of tags by name
+     */
+    public void countTags(Map<String, Integer> counts){
+        for (List<Tag> found : knownTags.values()) {
+            countTags(found, counts);
+        }
+        for (List<Tag> found : customTags.values()) {
+            countTags(found, counts);
+        }
+    }
+
+    private static void countTags(List<Tag> found,
+                                  Map<String, Integer> counts){
+        for (Tag tag : found) {
+            Integer num = counts.get(tag.name());
+            counts.put(tag.name(), num==null?1:num+1);
+        }
+    }
+
+    private void addTag(KnownTag knownTag, String tagName, Tag tag){
+        List<Tag> found = knownTag != null ?
+                knownTags.get(knownTag) : customTags.get(tagName);
+        if (found == null) {
+            found = new ArrayList<Tag>(1);
+            if (knownTag != null) {
+                knownTags.put(knownTag, found);
+            } else {
+                customTags.put(tagName, found);
             }
         }
-        return found;
+        found.add(tag);
     }
 
-    public boolean hasTag(String tagName){
-        for(Tag tag: tagList){
-            if (tag.name().equals(tagName)) return true;
+    private CommentType resolveType(){
+        if(hasTag(KnownTag.CLASS)){
+            return CommentType.CLASS;
+        }else if(hasTag(KnownTag.EVENT)){
+            return CommentType.EVENT;
+        }else if(hasTag(KnownTag.CFG)){
+            return CommentType.CFG;
+        }else if(hasTag(KnownTag.PARAM)
+                || hasTag(KnownTag.RETURN)
+                || hasTag(KnownTag.METHOD)){
+            return CommentType.METHOD;
+        }else if (hasTag(KnownTag.TYPE)
+                || hasTag(KnownTag.PROPERTY)){
+            return CommentType.PROPERTY;
         }
-        return false;
+        return null;
     }
 
     private enum CommentState {SPACE, DESCRIPTION}
@@ -166,38 +252,49 @@ public class Comment {
                 if (tagName == null){
                     description = tx;
                 }else{
+                    KnownTag knownTag = KnownTag.forName(tagName);
                     TagImpl tag;
-                    if (tagName.equals("@class")){
-                        tag = new ClassTagImpl(tagName, tx);
-                    }else if (tagName.equals("@param")){
-                        tag = new ParamTagImpl(tagName, tx);
-                    }else if (tagName.equals("@extends")){
-                        tag = new ExtendsTagImpl(tagName, tx);
-                    }else if (tagName.equals("@cfg")){
-                        tag = new CfgTagImpl(tagName, tx);
-                    }else if (tagName.equals("@type")){
-                        tag = new TypeTagImpl(tagName, tx);
-                    }else if (tagName.equals("@return")){
-                        tag = new ReturnTagImpl(tagName, tx);
-                    }else if (tagName.equals("@member")){
-                        tag = new MemberTagImpl(tagName, tx);
-                    }else if (tagName.equals("@event")){
-                        tag = new EventTagImpl(tagName, tx);
-                    }else if (tagName.equals("@property")){
-                        tag = new PropertyTagImpl(tagName, tx);
-                    }else{
+                    if (knownTag == null){
                         tag = new TagImpl(tagName, tx);
+                    }else switch (knownTag){
+                        case CLASS:
+                            tag = new ClassTagImpl(tagName, tx);
+                            break;
+                        case PARAM:
+                            tag = new ParamTagImpl(tagName, tx);
+                            break;
+                        case EXTENDS:
+                            tag = new ExtendsTagImpl(tagName, tx);
+                            break;
+                        case CFG:
+                            tag = new CfgTagImpl(tagName, tx);
+                            break;
+                        case TYPE:
+                            tag = new TypeTagImpl(tagName, tx);
+                            break;
+                        case RETURN:
+                            tag = new ReturnTagImpl(tagName, tx);
+                            break;
+                        case MEMBER:
+                            tag = new MemberTagImpl(tagName, tx);
+                            break;
+                        case EVENT:
+                            tag = new EventTagImpl(tagName, tx);
+                            break;
+                        case PROPERTY:
+                            tag = new PropertyTagImpl(tagName, tx);
+                            break;
+                        default:
+                            tag = new TagImpl(tagName, tx);
                     }
 
-                    Integer num = allTags.get(tagName);
-                    allTags.put(tagName, num==null?1:num+1);
-
-                    tagList.add(tag);
+                    addTag(knownTag, tagName, tag);
                 }
             }
             
         }
         new CommentStringParser().parseCommentStateMachine();
+        type = resolveType();
 
     }
 
@@ -0,0 +1,8 @@
+package extdoc.jsdoc.tags.impl;
+
+/**
+ * What doc comment describes
+ */
+public enum CommentType {
+    CLASS, CFG, PROPERTY, METHOD, EVENT
+}
@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.EventTag;
  */
 class EventTagImpl extends TagImpl implements EventTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String eventName;
 
     private String eventDescription;
@@ -8,6 +8,8 @@ import extdoc.jsdoc.tags.ExtendsTag;
  * Time: 1:54:12
  */
 class ExtendsTagImpl extends TagImpl implements ExtendsTag {
+
+    private static final long serialVersionUID = 1L;
     
     String className;
 
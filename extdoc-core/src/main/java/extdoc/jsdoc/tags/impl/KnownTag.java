@@ -0,0 +1,58 @@
+package extdoc.jsdoc.tags.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tags ext-doc understands. Comments index these by enum, all other
+ * tags by name.
+ */
+public enum KnownTag {
+    CLASS("@class"),
+    EXTENDS("@extends"),
+    SINGLETON("@singleton"),
+    CONSTRUCTOR("@constructor"),
+    NAMESPACE("@namespace"),
+    CFG("@cfg"),
+    PROPERTY("@property"),
+    TYPE("@type"),
+    METHOD("@method"),
+    PARAM("@param"),
+    RETURN("@return"),
+    MEMBER("@member"),
+    STATIC("@static"),
+    EVENT("@event"),
+    HIDE("@hide"),
+    PRIVATE("@private"),
+    IGNORE("@ignore");
+
+    private static final Map<String, KnownTag> byName =
+            new HashMap<String, KnownTag>();
+
+    static {
+        for (KnownTag tag : values()) {
+            byName.put(tag.tagName, tag);
+        }
+    }
+
+    private final String tagName;
+
+    KnownTag(String tagName) {
+        this.tagName = tagName;
+    }
+
+    /**
+     * @return tag name with leading "@"
+     */
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * @param tagName tag name with leading "@"
+     * @return known tag or null
+     */
+    public static KnownTag forName(String tagName) {
+        return byName.get(tagName);
+    }
+}
@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.MemberTag;
  */
 class MemberTagImpl extends TagImpl implements MemberTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String className;
 
     private String methodName;
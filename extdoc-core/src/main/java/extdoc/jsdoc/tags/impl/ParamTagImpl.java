@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.ParamTag;
  */
 class ParamTagImpl extends TagImpl implements ParamTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String paramType;
     private String paramName;
     private String paramDescription;
@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.PropertyTag;
  */
 class PropertyTagImpl extends TagImpl implements PropertyTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String propertyName;
 
     private String propertyDescription;
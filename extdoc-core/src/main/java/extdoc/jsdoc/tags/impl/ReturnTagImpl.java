@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.ReturnTag;
  */
 class ReturnTagImpl extends TagImpl implements ReturnTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String returnType;
 
     private String returnDescription;
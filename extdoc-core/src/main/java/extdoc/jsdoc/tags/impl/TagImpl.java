@@ -2,12 +2,16 @@ package extdoc.jsdoc.tags.impl;
 
 import extdoc.jsdoc.tags.Tag;
 
+import java.io.Serializable;
+
 /**
  * User: Andrey Zubkov
  * Date: 30.10.2008
  * Time: 23:33:11
  */
-class TagImpl implements Tag {
+class TagImpl implements Tag, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String name;
 
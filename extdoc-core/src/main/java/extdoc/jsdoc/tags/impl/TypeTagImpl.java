@@ -9,6 +9,8 @@ import extdoc.jsdoc.tags.TypeTag;
  */
 class TypeTagImpl extends TagImpl implements TypeTag {
 
+    private static final long serialVersionUID = 1L;
+
     private String type;
 
     public TypeTagImpl(String name, String text) {
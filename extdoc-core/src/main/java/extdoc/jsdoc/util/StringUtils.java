@@ -1,5 +1,9 @@
 package extdoc.jsdoc.util;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * User: Andrey Zubkov
  * Date: 06.12.2008
@@ -70,81 +74,46 @@ public class StringUtils {
         return res;
     }
 
-    /**
-     * Highlights quotes with "em" tag
-     * @param str input string
-     * @return output string
-     */
-    static String highlightQuotes(String str){
-        StringBuilder buffer = new StringBuilder();
-        int len = str.length();
-        boolean singleQuote = false;
-        boolean doubleQuote = false;
-        for(int i=0;i<len;i++){
-            char ch = str.charAt(i);
-            if (ch=='\''){
-                buffer.append(singleQuote?"\'</em>":"<em>\'");
-                singleQuote = !singleQuote;
-            }else if (ch=='\"'){
-                buffer.append(doubleQuote?"\"</em>":"<em>\"");
-                doubleQuote = !doubleQuote;
-            }else{
-                buffer.append(ch);
-            }
-        }
-        return buffer.toString();
-    }
-
     private static final String[] KEYWORDS = new String[]{
 "break","continue","do","for","import","new","	this","void",
 "case","default","else","function","in","return","typeof","while",
 "comment","delete","export","if","label","switch","var","with"
     };
 
-    private static boolean isKeyword(String word){
-        for (String key : KEYWORDS) {
-            if (key.equals(word)) return true;
-        }
-        return false;
-    }
+    private static final Set<String> KEYWORD_SET =
+            new HashSet<String>(Arrays.asList(KEYWORDS));
 
-    /**
-     * Highlights JavaScript keywords with "b" tag
-     * @param str input string
-     * @return output string
-     */
-    static String highlightKeywords(String str){
-        StringBuilder buffer = new StringBuilder();
-        int len = str.length();
-        boolean isPrevAlpha = false;
-        int last = 0;
-        for(int i=0;i<len;i++){
-            char ch = str.charAt(i);
-            boolean isAlpha = Character.isLetter(ch);
-            if (isAlpha != isPrevAlpha){
-                String word = str.substring(last, i);
-                buffer.append((!isAlpha && isKeyword(word))?"<b>"+word+"</b>":word);
-                last = i;
-            }
-            isPrevAlpha = isAlpha;
-        }
-        // remaining
-        String word = str.substring(last, len);
-        buffer.append((isPrevAlpha && isKeyword(word))?"<b>"+word+"</b>":word);
-        return buffer.toString();
-    }
+    private static final int MAX_KEYWORD_LENGTH = 8;
 
     /**
-     * Highlights one ine comments with "i" tag
+     * Highlights keywords, comments and quotes in the input string.
+     * Keywords are highlighted with "b" tag, one line comments with "i"
+     * tag and quotes with "em" tag. Keywords and quotes are highlighted
+     * inside comments too.
      * @param str input string
      * @return output string
      */
-    static String highlightComments(String str){
-        StringBuilder buffer = new StringBuilder();
+    public static String highlight(String str){
         int len = str.length();
+        StringBuilder buffer = new StringBuilder(len + len / 4);
         boolean comment = false;
-        for(int i=0;i<len;i++){
+        boolean singleQuote = false;
+        boolean doubleQuote = false;
+        int i = 0;
+        while (i < len){
             char ch = str.charAt(i);
+            if (Character.isLetter(ch)){
+                // whole word at once
+                int start = i;
+                while (i < len && Character.isLetter(str.charAt(i))) i++;
+                if (i - start <= MAX_KEYWORD_LENGTH
+                        && KEYWORD_SET.contains(str.substring(start, i))){
+                    buffer.append("<b>").append(str, start, i).append("</b>");
+                }else{
+                    buffer.append(str, start, i);
+                }
+                continue;
+            }
             if(!comment && ch=='/' && i<len-1 && str.charAt(i+1)=='/'){
                 buffer.append("<i>");
                 comment = true;
@@ -153,59 +122,70 @@ public class StringUtils {
                 buffer.append("</i>");
                 comment = false;
             }
-            buffer.append(ch);
+            if (ch=='\''){
+                buffer.append(singleQuote?"\'</em>":"<em>\'");
+                singleQuote = !singleQuote;
+            }else if (ch=='\"'){
+                buffer.append(doubleQuote?"\"</em>":"<em>\"");
+                doubleQuote = !doubleQuote;
+            }else{
+                buffer.append(ch);
+            }
+            i++;
         }
         // remaining
         if (comment){
-            buffer.append("</i>");           
+            buffer.append("</i>");
         }
         return buffer.toString();
     }
 
-
-    /**
-     * Highlights keywords, comments and quotes in the input string
-     * @param str input string
-     * @return output string
-     */
-    public static String highlight(String str){
-        return highlightQuotes(
-                        highlightKeywords(
-                            highlightComments(str)));
-    }
-
     public static class TokenHandler{
         protected String handle(String content){
             return content;
         }
     }
 
+    /**
+     * Passes text between start and end tokens to handler.
+     * Token is recognized only if at least one character follows it,
+     * start and end tokens must not overlap.
+     * @param input input string
+     * @param startToken start token
+     * @param endToken end token
+     * @param handler handler of text between tokens
+     * @return output string
+     */
     public static String processTokens(String input,
                                        String startToken,
                                        String endToken,
                                        TokenHandler handler){
-        StringBuilder buffer = new StringBuilder();
         int len = input.length();
+        StringBuilder buffer = new StringBuilder(len);
         int slen = startToken.length();
         int elen = endToken.length();
         int last = 0;
-        boolean token = false;
-        for(int i=0;i<len;i++){
-            if (!token && i>=slen && input.substring(i-slen, i).equals(startToken)){
-                buffer.append(input.substring(last, i));
-                last = i;
-                token = true;                
-            }else if (token && i>=elen && input.substring(i-elen, i).equals(endToken)){
-                buffer.append(handler.handle(input.substring(last, i-elen)));
-                buffer.append(endToken);
-                last = i;
-                token = false;
+        while (true){
+            int start = input.indexOf(startToken, last);
+            if (start == -1 || start + slen >= len){
+                break;
             }
+            int contentStart = start + slen;
+            buffer.append(input, last, contentStart);
+            last = contentStart;
+            int end = input.indexOf(endToken, contentStart);
+            if (end == -1 || end + elen >= len){
+                // unterminated, remaining is token content
+                buffer.append(handler.handle(input.substring(last, len)));
+                return buffer.toString();
+            }
+            buffer.append(handler.handle(input.substring(contentStart, end)));
+            buffer.append(endToken);
+            last = end + elen;
         }
         // remaining
-        String remain = input.substring(last, len);          
-        buffer.append(token?handler.handle(remain):remain);
-        return buffer.toString();        
+        buffer.append(input, last, len);
+        return buffer.toString();
     }
 
     /**
@@ -0,0 +1,67 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class BuildStatsTest {
+
+    private static final long MILLI = 1000000L;
+
+    private static double cpuMs(BuildStats stats, String phase) {
+        Matcher m = Pattern.compile('"' + phase +
+                "\": \\{\"wallMs\": [0-9.]+, \"cpuMs\": ([0-9.]+)\\}")
+                .matcher(stats.toJson());
+        assertTrue(stats.toJson(), m.find());
+        return Double.parseDouble(m.group(1));
+    }
+
+    private static void inThread(Runnable work) throws InterruptedException {
+        Thread thread = new Thread(work);
+        thread.start();
+        thread.join();
+    }
+
+    @Test
+    public void chargesWorkerCpuToItsPhase() throws InterruptedException {
+        final BuildStats stats = new BuildStats();
+        stats.startPhase(BuildStats.RESOURCE_COPY);
+        inThread(new Runnable() {
+            public void run() {
+                stats.workDone(BuildStats.RESOURCE_COPY, 7000 * MILLI);
+            }
+        });
+        stats.startPhase(BuildStats.RENDER);
+        // compression goes on while pages are rendered
+        inThread(new Runnable() {
+            public void run() {
+                stats.workDone(BuildStats.COMPRESS, 5000 * MILLI);
+            }
+        });
+        stats.endPhase();
+        assertTrue(cpuMs(stats, BuildStats.RESOURCE_COPY) >= 7000);
+        assertEquals(5000.0, cpuMs(stats, BuildStats.COMPRESS), 0.001);
+        assertTrue(cpuMs(stats, BuildStats.RENDER) < 5000);
+    }
+
+    @Test
+    public void phaseThreadIsNotCountedTwice() {
+        BuildStats stats = new BuildStats();
+        stats.startPhase(BuildStats.RESOURCE_COPY);
+        stats.workDone(BuildStats.RESOURCE_COPY, 7000 * MILLI);
+        stats.endPhase();
+        assertTrue(cpuMs(stats, BuildStats.RESOURCE_COPY) < 7000);
+    }
+
+    @Test
+    public void countsBytesActuallyRead() {
+        BuildStats stats = new BuildStats();
+        stats.fileParsed(new File("missing.js"), 42, 1, 0, 0);
+        assertEquals(1, stats.getFilesRead());
+        assertTrue(stats.toJson().contains("\"bytesRead\": 42,"));
+    }
+}
@@ -0,0 +1,81 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocCfg;
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocEvent;
+import extdoc.jsdoc.docs.DocMethod;
+import extdoc.jsdoc.docs.DocProperty;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClassHierarchyTest {
+
+    private static DocClass addClass(Context context, String name,
+                                     String parent) {
+        DocClass cls = new DocClass();
+        cls.className = name;
+        cls.shortClassName = name.substring(name.lastIndexOf('.') + 1);
+        cls.parentClass = parent;
+        context.getClasses().add(cls);
+        return cls;
+    }
+
+    private static DocMethod addMethod(Context context, String className,
+                                       String name) {
+        DocMethod method = new DocMethod();
+        method.className = className;
+        method.name = name;
+        context.getMethods().add(method);
+        return method;
+    }
+
+    @Test
+    public void linksClassesAndMembers() {
+        Context context = new Context();
+        DocClass window = addClass(context, "Ext.Window", "Ext.Panel");
+        DocClass panel = addClass(context, "Ext.Panel", "Ext.Component");
+        DocClass component = addClass(context, "Ext.Component", null);
+        DocClass button = addClass(context, "Ext.Button", "Ext.Component");
+        DocClass orphan = addClass(context, "My.Orphan", "My.Missing");
+        DocMethod show = addMethod(context, "Ext.Component", "show");
+        DocMethod close = addMethod(context, "Ext.Window", "close");
+        DocMethod hide = addMethod(context, "Ext.Component", "hide");
+        addMethod(context, "Ext.Unknown", "lost");
+        DocCfg title = new DocCfg();
+        title.className = "Ext.Panel";
+        context.getCfgs().add(title);
+        DocProperty el = new DocProperty();
+        el.className = "Ext.Component";
+        context.getProperties().add(el);
+        DocEvent click = new DocEvent();
+        click.className = "Ext.Button";
+        context.getEvents().add(click);
+
+        new ClassHierarchy(context).build();
+
+        assertSame(panel, window.parent);
+        assertSame(component, panel.parent);
+        assertSame(component, button.parent);
+        assertNull(component.parent);
+        assertNull(orphan.parent);
+
+        // subclasses in declaration order
+        assertEquals(2, component.subClasses.size());
+        assertEquals("Ext.Panel", component.subClasses.get(0).className);
+        assertEquals("Panel", component.subClasses.get(0).shortClassName);
+        assertEquals("Ext.Button", component.subClasses.get(1).className);
+        assertEquals(1, panel.subClasses.size());
+        assertTrue(window.subClasses.isEmpty());
+
+        assertEquals(2, component.methods.size());
+        assertSame(show, component.methods.get(0));
+        assertSame(hide, component.methods.get(1));
+        assertEquals(1, window.methods.size());
+        assertSame(close, window.methods.get(0));
+        assertSame(title, panel.cfgs.get(0));
+        assertSame(el, component.properties.get(0));
+        assertSame(click, button.events.get(0));
+        assertTrue(orphan.methods.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ClassPageRendererTest {
+
+    private static final String CLASS_TEMPLATE = "/tpl/class.xsl";
+
+    private static final int THREADS = 8;
+
+    private static final int RENDERS = 20;
+
+    private JAXBContext jaxbContext;
+
+    private Templates templates;
+
+    private List<DocClass> classes;
+
+    @Before
+    public void setUp() throws Exception {
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        processor.process(null, new String[]{
+                TestFiles.resourceDir(getClass(), "parity").getPath()});
+        classes = processor.getContext().getClasses();
+        jaxbContext = JAXBContext.newInstance("extdoc.jsdoc.docs");
+        templates = TransformerFactory.newInstance().newTemplates(
+                new StreamSource(
+                        getClass().getResource(CLASS_TEMPLATE).toString()));
+    }
+
+    private static String render(PageRenderer renderer, DocClass docClass)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(docClass, out);
+        return out.toString("UTF8");
+    }
+
+    @Test
+    public void streamsSamePagesAsDom() throws Exception {
+        assertEquals(3, classes.size());
+        PageRenderer stream =
+                new ClassPageRenderer(jaxbContext, templates, false);
+        PageRenderer dom =
+                new ClassPageRenderer(jaxbContext, templates, true);
+        for (DocClass docClass : classes) {
+            assertEquals(docClass.className, render(dom, docClass),
+                    render(stream, docClass));
+        }
+    }
+
+    @Test
+    public void rendersSamePagesOnThreads() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        PageRenderer sequential =
+                new ClassPageRenderer(jaxbContext, templates, false);
+        for (DocClass docClass : classes) {
+            expected.add(render(sequential, docClass));
+        }
+
+        // one renderer and one compiled template for all threads
+        final PageRenderer renderer =
+                new ClassPageRenderer(jaxbContext, templates, false);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> pages = new ArrayList<Future<String>>();
+            for (int i = 0; i < RENDERS; i++) {
+                for (final DocClass docClass : classes) {
+                    pages.add(executor.submit(new Callable<String>() {
+                        public String call() throws Exception {
+                            return render(renderer, docClass);
+                        }
+                    }));
+                }
+            }
+            for (int i = 0; i < pages.size(); i++) {
+                assertEquals(classes.get(i % classes.size()).className,
+                        expected.get(i % classes.size()), pages.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
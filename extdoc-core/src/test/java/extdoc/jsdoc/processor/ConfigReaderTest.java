@@ -0,0 +1,104 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.schema.Doc;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConfigReaderTest {
+
+    private static File config(String name) throws Exception {
+        return new File(TestFiles.resourceDir(
+                ConfigReaderTest.class, "config"), name);
+    }
+
+    private static Object unmarshal(String contextPath, File file)
+            throws Exception {
+        return JAXBContext.newInstance(contextPath).createUnmarshaller()
+                .unmarshal(file);
+    }
+
+    private static boolean isModel(Object value) {
+        return value.getClass().getName().startsWith("extdoc.jsdoc.");
+    }
+
+    /**
+     * Compares values of all getters of classes generated from schema
+     */
+    private static void assertSameModel(String path, Object expected,
+                                        Object actual) throws Exception {
+        if (expected == null || actual == null) {
+            assertEquals(path, expected, actual);
+            return;
+        }
+        assertEquals(path, expected.getClass(), actual.getClass());
+        if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path, expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSameModel(path + '[' + i + ']',
+                        expectedList.get(i), actualList.get(i));
+            }
+            return;
+        }
+        if (!isModel(expected)) {
+            assertEquals(path, expected, actual);
+            return;
+        }
+        for (Method method : expected.getClass().getMethods()) {
+            String name = method.getName();
+            if (method.getParameterTypes().length == 0 &&
+                    method.getDeclaringClass() != Object.class &&
+                    (name.startsWith("get") || name.startsWith("is"))) {
+                assertSameModel(path + '.' + name,
+                        method.invoke(expected), method.invoke(actual));
+            }
+        }
+    }
+
+    private static void assertSameProject(String name) throws Exception {
+        File file = config(name);
+        assertSameModel(name, unmarshal("extdoc.jsdoc.schema", file),
+                ConfigReader.readProject(file));
+    }
+
+    private static void assertSameTemplate(String name) throws Exception {
+        File file = config(name);
+        assertSameModel(name, unmarshal("extdoc.jsdoc.tplschema", file),
+                ConfigReader.readTemplate(file));
+    }
+
+    @Test
+    public void readsProjectAsJaxb() throws Exception {
+        assertSameProject("project.xml");
+        assertSameProject("project-defaults.xml");
+    }
+
+    @Test
+    public void readsTemplateAsJaxb() throws Exception {
+        assertSameTemplate("template.xml");
+        assertSameTemplate("template-defaults.xml");
+    }
+
+    @Test
+    public void readsAttributes() throws Exception {
+        Doc doc = ConfigReader.readProject(config("project.xml"));
+        assertEquals("src & more",
+                doc.getSources().getSource().get(2).getSrc());
+        assertEquals(Boolean.TRUE,
+                doc.getSources().getSource().get(1).getSkipHidden());
+        assertEquals("<b>{0}</b>", doc.getTags().getTag().get(0).getFormat());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTemplateAsProject() throws Exception {
+        ConfigReader.readProject(config("template.xml"));
+    }
+}
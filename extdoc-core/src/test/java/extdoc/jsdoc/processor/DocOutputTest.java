@@ -0,0 +1,112 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+public class DocOutputTest {
+
+    // manifests of incremental build are kept only in folder
+    private static final String MANIFEST_PREFIX = ".extdoc";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static void listFolder(File folder, String prefix,
+                                   Map<String, String> files)
+            throws IOException {
+        File[] children = folder.listFiles();
+        assertNotNull(children);
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                listFolder(child, path + '/', files);
+            } else if (!child.getName().startsWith(MANIFEST_PREFIX)) {
+                files.put(path, TestFiles.read(child));
+            }
+        }
+    }
+
+    private static Map<String, String> listArchive(File archive)
+            throws IOException {
+        Map<String, String> files = new TreeMap<String, String>();
+        ZipFile zip = new ZipFile(archive);
+        try {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                InputStream in = zip.getInputStream(entry);
+                try {
+                    byte[] buf = new byte[8192];
+                    int len;
+                    while ((len = in.read(buf)) > 0) {
+                        bytes.write(buf, 0, len);
+                    }
+                } finally {
+                    in.close();
+                }
+                assertNull(entry.getName(),
+                        files.put(entry.getName(), bytes.toString("UTF8")));
+            }
+        } finally {
+            zip.close();
+        }
+        return files;
+    }
+
+    private void build(File srcDir, File templateFile, File out) {
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        BuildResult result = processor.build(null,
+                new String[]{srcDir.getPath()}, out.getPath(),
+                templateFile.getPath());
+        assertTrue(result.getErrors().toString(), result.isSuccessful());
+    }
+
+    @Test
+    public void archiveHasLayoutOfFolder() throws IOException {
+        File templateDir = new File(dir, "template");
+        TestFiles.copyFiles(
+                TestFiles.resourceDir(getClass(), "template"), templateDir);
+        File templateFile = new File(templateDir, "template.xml");
+        File srcDir = new File(dir, "src");
+        TestFiles.write(new File(srcDir, "A.js"),
+                "/**\n * @class A\n * First.\n */\n");
+        TestFiles.write(new File(srcDir, "pkg/B.js"),
+                "/**\n * @class pkg.B\n * @extends A\n * Second.\n */\n");
+        File folder = new File(dir, "folder");
+        File archive = new File(dir, "docs.zip");
+
+        build(srcDir, templateFile, folder);
+        build(srcDir, templateFile, archive);
+
+        Map<String, String> folderFiles = new TreeMap<String, String>();
+        listFolder(folder, "", folderFiles);
+        assertTrue(folderFiles.containsKey("output/pkg.B.html"));
+        assertTrue(folderFiles.containsKey("index.html"));
+        assertEquals(folderFiles, listArchive(archive));
+    }
+}
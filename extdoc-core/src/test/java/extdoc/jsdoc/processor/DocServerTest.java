@@ -0,0 +1,69 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class DocServerTest {
+
+    private static final DocServer.PageSource PAGES =
+            new DocServer.PageSource() {
+                public byte[] getPage(String path) throws Exception {
+                    return "index.html".equals(path) ?
+                            "<p>docs</p>".getBytes("UTF8") : null;
+                }
+
+                public File getFile(String path) {
+                    return null;
+                }
+            };
+
+    private DocServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private DocServer start(InetAddress address) throws IOException {
+        server = new DocServer(PAGES, 1024 * 1024,
+                Logger.getAnonymousLogger());
+        server.start(address, 0, 1);
+        return server;
+    }
+
+    private static int get(String url) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL(url).openConnection();
+        try {
+            int code = connection.getResponseCode();
+            if (code == 200) {
+                InputStream in = connection.getInputStream();
+                in.close();
+            }
+            return code;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void listensOnGivenAddress() throws IOException {
+        start(InetAddress.getLoopbackAddress());
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+        String root = "http://localhost:" + server.getPort() + "/";
+        assertEquals(200, get(root));
+        assertEquals(404, get(root + "missing.html"));
+    }
+}
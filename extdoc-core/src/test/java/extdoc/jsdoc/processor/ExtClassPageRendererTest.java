@@ -0,0 +1,48 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ExtClassPageRendererTest {
+
+    private static final String CLASS_TEMPLATE = "/tpl/class.xsl";
+
+    private static byte[] render(PageRenderer renderer, DocClass docClass)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(docClass, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void writesSamePagesAsClassTemplate() throws Exception {
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        processor.process(null, new String[]{
+                TestFiles.resourceDir(getClass(), "parity").getPath()});
+        List<DocClass> classes = processor.getContext().getClasses();
+        assertEquals(3, classes.size());
+
+        URL template = getClass().getResource(CLASS_TEMPLATE);
+        PageRenderer xslt = new ClassPageRenderer(
+                JAXBContext.newInstance("extdoc.jsdoc.docs"),
+                TransformerFactory.newInstance().newTemplates(
+                        new StreamSource(template.toString())),
+                false);
+        PageRenderer ext = new ExtClassPageRenderer();
+        for (DocClass docClass : classes) {
+            String expected = new String(render(xslt, docClass), "UTF8");
+            assertEquals(docClass.className, expected,
+                    new String(render(ext, docClass), "UTF8"));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.*;
+
+public class FileProcessorImplTest {
+
+    private static class RecordingHandler extends Handler {
+        final List<LogRecord> records = new ArrayList<LogRecord>();
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // manifests record time of the build
+    private static final String MANIFEST_PREFIX = ".extdoc";
+
+    // builds with threads writing every kind of output
+    private static final String TEMPLATE =
+            "<template>\n" +
+            "    <classTemplate tpl=\"class.xsl\" targetDir=\"output\"/>\n" +
+            "    <treeTemplate tpl=\"tree.xsl\" targetFile=\"output/tree.js\"/>\n" +
+            "    <source targetDir=\"source\" wrapper=\"source-wrap.html\"/>\n" +
+            "    <resources>\n" +
+            "        <copy src=\"index.html\" dst=\"index.html\"/>\n" +
+            "        <copy src=\"resources\" dst=\"resources\"/>\n" +
+            "    </resources>\n" +
+            "    <search targetDir=\"output/search\"/>\n" +
+            "</template>\n";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static void listFolder(File folder, String prefix,
+                                   Map<String, byte[]> files)
+            throws IOException {
+        File[] children = folder.listFiles();
+        assertNotNull(children);
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                listFolder(child, path + '/', files);
+            } else if (!child.getName().startsWith(MANIFEST_PREFIX)) {
+                files.put(path, TestFiles.readBytes(child));
+            }
+        }
+    }
+
+    private Map<String, byte[]> build(File srcDir, File templateFile,
+                                      int threads) throws IOException {
+        File out = new File(dir, "out" + threads);
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        processor.setThreads(threads);
+        processor.setGzip(true);
+        BuildResult result = processor.build(null,
+                new String[]{srcDir.getPath()}, out.getPath(),
+                templateFile.getPath());
+        assertTrue(result.getErrors().toString(), result.isSuccessful());
+        Map<String, byte[]> files = new TreeMap<String, byte[]>();
+        listFolder(out, "", files);
+        return files;
+    }
+
+    @Test
+    public void writesSameOutputWithThreads() throws IOException {
+        File templateDir = new File(dir, "template");
+        TestFiles.copyFiles(
+                TestFiles.resourceDir(getClass(), "template"), templateDir);
+        File templateFile = TestFiles.write(
+                new File(templateDir, "template.xml"), TEMPLATE);
+        File srcDir = new File(dir, "src");
+        TestFiles.copyFiles(
+                TestFiles.resourceDir(getClass(), "parity"), srcDir);
+        for (int i = 0; i < 40; i++) {
+            TestFiles.write(new File(srcDir, "pkg" + i % 4 + "/C" + i + ".js"),
+                    "/**\n * @class pkg" + i % 4 + ".C" + i + "\n" +
+                    " * @extends " + (i > 0 ? "pkg" + (i - 1) % 4 + ".C" +
+                    (i - 1) : "Ext.shape.Shape") + "\n * Class " + i + ".\n */\n" +
+                    "/**\n * @cfg {Number} size" + i + " Size " + i + ".\n */\n" +
+                    "/**\n * Runs step " + i + ".\n * @method step" + i +
+                    "\n */\n");
+            TestFiles.write(new File(templateDir, "resources/r" + i + ".css"),
+                    ".r" + i + " {}\n");
+        }
+
+        Map<String, byte[]> expected = build(srcDir, templateFile, 1);
+        Map<String, byte[]> actual = build(srcDir, templateFile, 4);
+        assertTrue(expected.containsKey("output/pkg3.C39.html"));
+        assertTrue(expected.containsKey("output/pkg3.C39.html.gz"));
+        assertTrue(expected.containsKey("resources/r39.css"));
+        assertTrue(expected.containsKey("output/search/st.json"));
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, byte[]> e : expected.entrySet()) {
+            assertArrayEquals(e.getKey(), e.getValue(), actual.get(e.getKey()));
+        }
+    }
+
+    @Test
+    public void reportsErrorsToLogHandlerWhenQuiet() throws IOException {
+        File templateDir = new File(dir, "template");
+        TestFiles.copyFiles(
+                TestFiles.resourceDir(getClass(), "template"), templateDir);
+        File templateFile = new File(templateDir, "template.xml");
+        // stylesheet renderer without stylesheet
+        TestFiles.write(templateFile, TestFiles.read(templateFile)
+                .replace("tpl=\"class.xsl\"", ""));
+        File srcDir = new File(dir, "src");
+        TestFiles.write(new File(srcDir, "A.js"), "/**\n * @class A\n */\n");
+
+        FileProcessorImpl processor = new FileProcessorImpl();
+        RecordingHandler handler = new RecordingHandler();
+        processor.setLogHandler(handler);
+        processor.setQuiet();
+        BuildResult result = processor.build(null,
+                new String[]{srcDir.getPath()},
+                new File(dir, "out").getPath(), templateFile.getPath());
+
+        assertFalse(result.isSuccessful());
+        assertEquals(1, handler.records.size());
+        LogRecord record = handler.records.get(0);
+        assertEquals(Level.SEVERE, record.getLevel());
+        assertSame(result.getErrors().get(0), record.getThrown());
+    }
+}
@@ -0,0 +1,83 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class GzipCompressorTest {
+
+    private File dir;
+
+    private File page;
+
+    private File image;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+        page = TestFiles.write(new File(dir, "page.html"), "<p>page</p>");
+        image = TestFiles.write(new File(dir, "image.png"), new byte[]{1, 2});
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static int compress(File... files) throws IOException {
+        GzipCompressor compressor = new GzipCompressor(2, new BuildStats());
+        for (File file : files) {
+            compressor.add(file);
+        }
+        compressor.finish();
+        return compressor.getCompressed();
+    }
+
+    private static File copyOf(File file) {
+        return new File(file.getPath() + GzipCompressor.EXTENSION);
+    }
+
+    private static String gunzip(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputStream in = new GZIPInputStream(new FileInputStream(file));
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                bytes.write(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return bytes.toString("UTF8");
+    }
+
+    @Test
+    public void compressesTextFilesOnly() throws IOException {
+        assertEquals(1, compress(page, image));
+        assertEquals("<p>page</p>", gunzip(copyOf(page)));
+        assertEquals(page.lastModified(), copyOf(page).lastModified());
+        assertFalse(copyOf(image).exists());
+    }
+
+    @Test
+    public void skipsUpToDateCopy() throws IOException {
+        compress(page);
+        assertEquals(0, compress(page));
+
+        long time = page.lastModified();
+        TestFiles.write(page, "<p>new page</p>");
+        assertTrue(page.setLastModified(time + 2000));
+        assertEquals(1, compress(page));
+        assertEquals("<p>new page</p>", gunzip(copyOf(page)));
+    }
+}
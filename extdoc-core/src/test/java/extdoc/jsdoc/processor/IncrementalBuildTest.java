@@ -0,0 +1,122 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class IncrementalBuildTest {
+
+    private static final String BASE =
+            "/**\n * @class Base\n * Base class.\n */\n" +
+            "Base = function(){};\n" +
+            "/**\n * Shows the base.\n * @method show\n */\n";
+
+    private static final String CHILD =
+            "/**\n * @class Child\n * @extends Base\n * Child class.\n */\n";
+
+    private static final String OTHER =
+            "/**\n * @class Other\n * Other class.\n */\n" +
+            "/**\n * Hides it.\n * @method hide\n */\n";
+
+    private File dir;
+
+    private File templateDir;
+
+    private File srcDir;
+
+    private File outDir;
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+        templateDir = new File(dir, "template");
+        TestFiles.copyFiles(
+                TestFiles.resourceDir(getClass(), "template"), templateDir);
+        srcDir = new File(dir, "src");
+        TestFiles.write(new File(srcDir, "Base.js"), BASE);
+        TestFiles.write(new File(srcDir, "Child.js"), CHILD);
+        TestFiles.write(new File(srcDir, "Other.js"), OTHER);
+        outDir = new File(dir, "out");
+        cacheDir = new File(dir, "cache");
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private BuildResult build() {
+        FileProcessorImpl processor = new FileProcessorImpl();
+        processor.setQuiet();
+        processor.setIncremental(true);
+        processor.setCacheDir(cacheDir.getPath());
+        BuildResult result = processor.build(null,
+                new String[]{srcDir.getPath()}, outDir.getPath(),
+                new File(templateDir, "template.xml").getPath());
+        assertTrue(result.getErrors().toString(), result.isSuccessful());
+        return result;
+    }
+
+    private String page(String className) throws IOException {
+        return TestFiles.read(new File(outDir, "output/" + className + ".html"));
+    }
+
+    @Test
+    public void unchangedBuildWritesNothing() throws IOException {
+        BuildResult first = build();
+        assertEquals(3, first.getClassCount());
+        assertEquals(3, first.getPagesWritten());
+        assertEquals(3, first.getSourcePagesWritten());
+        BuildResult second = build();
+        assertEquals(0, second.getPagesWritten());
+        assertEquals(0, second.getSourcePagesWritten());
+        assertTrue(page("Child").contains("Base.show: Shows the base."));
+    }
+
+    @Test
+    public void parentChangeRendersSubclasses() throws IOException {
+        build();
+        TestFiles.write(new File(srcDir, "Base.js"),
+                BASE.replace("Shows the base.", "Shows the parent."));
+        BuildResult result = build();
+        // Base and Child, which inherits show, but not Other
+        assertEquals(2, result.getPagesWritten());
+        assertEquals(1, result.getSourcePagesWritten());
+        assertTrue(page("Base").contains("Shows the parent."));
+        assertTrue(page("Child").contains("Base.show: Shows the parent."));
+    }
+
+    @Test
+    public void importedStylesheetChangeRendersAllPages() throws IOException {
+        build();
+        File footer = new File(templateDir, "footer.xsl");
+        TestFiles.write(footer, TestFiles.read(footer)
+                .replace("<p>footer</p>", "<p>new footer</p>"));
+        BuildResult result = build();
+        assertEquals(3, result.getPagesWritten());
+        assertTrue(page("Other").contains("new footer"));
+    }
+
+    @Test
+    public void sameSizeEditWithRestoredTimeIsNoticed() throws IOException {
+        File base = new File(srcDir, "Base.js");
+        long time = (System.currentTimeMillis() / 1000 - 3600) * 1000;
+        assertTrue(base.setLastModified(time));
+        build();
+        // same size, time restored as cp -p or rsync -t would do
+        TestFiles.write(base, BASE.replace("base.", "BASE."));
+        assertTrue(base.setLastModified(time));
+        build();
+        assertTrue(page("Base").contains("Shows the BASE."));
+        assertTrue(page("Child").contains("Shows the BASE."));
+        assertTrue(TestFiles.read(new File(outDir, "source/Base.html"))
+                .contains("Shows the BASE."));
+    }
+}
@@ -0,0 +1,98 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocMethod;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class InheritanceResolverTest {
+
+    private static class RecordingHandler extends Handler {
+        final List<String> messages = new ArrayList<String>();
+
+        @Override
+        public void publish(LogRecord record) {
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static DocClass addClass(Context context, String name,
+                                     String parent) {
+        DocClass cls = new DocClass();
+        cls.className = name;
+        cls.shortClassName = name;
+        cls.parentClass = parent;
+        context.getClasses().add(cls);
+        return cls;
+    }
+
+    private static void addMethod(Context context, String className,
+                                  String name) {
+        DocMethod method = new DocMethod();
+        method.className = className;
+        method.shortClassName = className;
+        method.name = name;
+        context.getMethods().add(method);
+    }
+
+    private static Logger createLogger(Handler handler) {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        return logger;
+    }
+
+    @Test
+    public void inheritsNotOverriddenMembers() {
+        Context context = new Context();
+        addClass(context, "Base", null);
+        DocClass child = addClass(context, "Child", "Base");
+        addMethod(context, "Base", "show");
+        addMethod(context, "Base", "hide");
+        addMethod(context, "Child", "hide");
+        new ClassHierarchy(context).build();
+        RecordingHandler handler = new RecordingHandler();
+
+        new InheritanceResolver(context.getClasses(),
+                createLogger(handler)).resolve();
+
+        assertEquals(2, child.methods.size());
+        assertEquals("hide", child.methods.get(0).name);
+        assertEquals("Child", child.methods.get(0).className);
+        assertEquals("show", child.methods.get(1).name);
+        assertEquals("Base", child.methods.get(1).className);
+        assertEquals(1, child.superClasses.size());
+        assertTrue(handler.messages.isEmpty());
+    }
+
+    @Test
+    public void warnsProcessorLoggerAboutCycle() {
+        Context context = new Context();
+        addClass(context, "A", "B");
+        addClass(context, "B", "A");
+        new ClassHierarchy(context).build();
+        RecordingHandler handler = new RecordingHandler();
+
+        new InheritanceResolver(context.getClasses(),
+                createLogger(handler)).resolve();
+
+        assertEquals(1, handler.messages.size());
+        assertTrue(handler.messages.get(0), handler.messages.get(0)
+                .matches("Class [AB] inherits itself"));
+    }
+}
@@ -0,0 +1,164 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.Description;
+import extdoc.jsdoc.docs.DocClass;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expected output was produced by the state machine that built long
+ * description first and removed tags from it with replaceAll()
+ */
+public class InlineLinksTest {
+
+    private static String rep(int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append('a');
+        }
+        return sb.toString();
+    }
+
+    // input, short version forced, long version, short version
+    private static final Object[][] DESCRIPTIONS = {
+            // class references
+            {"See {@link Ext.Element}.", false,
+             "See <a href=\"output/Ext.Element.html\" " +
+                     "ext:cls=\"Ext.Element\">Ext.Element</a>.",
+             null},
+            {"See {@link Ext.Element the element}.", false,
+             "See <a href=\"output/Ext.Element.html\" " +
+                     "ext:cls=\"Ext.Element\">the element</a>.",
+             null},
+            // member references, of the current class without class name
+            {"Calls {@link #show}.", false,
+             "Calls <a href=\"output/Ext.Panel.html#Ext.Panel-show\" " +
+                     "ext:member=\"show\" ext:cls=\"Ext.Panel\">show</a>.",
+             null},
+            {"Calls {@link Ext.Window#show}.", false,
+             "Calls <a href=\"output/Ext.Window.html#Ext.Window-show\" " +
+                     "ext:member=\"show\" " +
+                     "ext:cls=\"Ext.Window\">Ext.Window.show</a>.",
+             null},
+            {"Calls {@link Ext.Window#show show it} now.", true,
+             "Calls <a href=\"output/Ext.Window.html#Ext.Window-show\" " +
+                     "ext:member=\"show\" ext:cls=\"Ext.Window\">show it</a> " +
+                     "now.",
+             "Calls show it now."},
+            // unclosed and nested tags, character after "{@link" is skipped
+            {"Broken {@link Ext.Window#show and no end", false,
+             "Broken Ext.Window#show and no end",
+             null},
+            {"Ends with {@link", false,
+             "Ends with {@link",
+             null},
+            {"Nested {@link Ext.A {@link Ext.B}} tags.", false,
+             "Nested <a href=\"output/Ext.A.html\" ext:cls=\"Ext.A\">{@link " +
+                     "Ext.B</a>} tags.",
+             null},
+            {"Tight {@linkExt.A} link.", false,
+             "Tight <a href=\"output/xt.A.html\" ext:cls=\"xt.A\">xt.A</a> " +
+                     "link.",
+             null},
+            // several links, tags and code in short version
+            {"Two {@link A} and {@link B#c}.", true,
+             "Two <a href=\"output/A.html\" ext:cls=\"A\">A</a> and <a " +
+                     "href=\"output/B.html#B-c\" ext:member=\"c\" " +
+                     "ext:cls=\"B\">B.c</a>.",
+             "Two A and B.c."},
+            {"<b>Bold</b> and <code>var x = 'y';</code> code.", true,
+             "<b>Bold</b> and <code><b>var</b> x = <em>'y'</em>;</code> code.",
+             "Bold and var x = 'y'; code."},
+            {"Less a < b and a<b> tag.", true,
+             "Less a < b and a<b> tag.",
+             "Less a < b and a tag."},
+            // description truncation
+            {"Creates a new panel with the given configuration, see {@link " +
+                     "Ext.Container} for the list of options that are passed " +
+                     "to the layout and its items.", false,
+             "Creates a new panel with the given configuration, see <a " +
+                     "href=\"output/Ext.Container.html\" " +
+                     "ext:cls=\"Ext.Container\">Ext.Container</a> for the " +
+                     "list of options that are passed to the layout and its " +
+                     "items.",
+             "Creates a new panel with the given configuration, see " +
+                     "Ext.Container for the list of options that are passed " +
+                     "to the la..."},
+            {"Creates a new panel with the given configuration, see {@link " +
+                     "Ext.Container} for the list of options that are passed " +
+                     "to the layout and its items.", true,
+             "Creates a new panel with the given configuration, see <a " +
+                     "href=\"output/Ext.Container.html\" " +
+                     "ext:cls=\"Ext.Container\">Ext.Container</a> for the " +
+                     "list of options that are passed to the layout and its " +
+                     "items.",
+             "Creates a new panel with the given configuration, see " +
+                     "Ext.Container for the list of options that are passed " +
+                     "to the la..."},
+            {"Returns <b>true</b> if the {@link #collapsed} panel is shown " +
+                     "by {@link Ext.Panel#expand expanding it} again, ex. " +
+                     "<code>panel.expand(true);</code> and then some more " +
+                     "text to overflow.", false,
+             "Returns <b>true</b> if the <a " +
+                     "href=\"output/Ext.Panel.html#Ext.Panel-collapsed\" " +
+                     "ext:member=\"collapsed\" " +
+                     "ext:cls=\"Ext.Panel\">collapsed</a> panel is shown by " +
+                     "<a href=\"output/Ext.Panel.html#Ext.Panel-expand\" " +
+                     "ext:member=\"expand\" ext:cls=\"Ext.Panel\">expanding " +
+                     "it</a> again, ex. <code>panel.expand(true);</code> and " +
+                     "then some more text to overflow.",
+             "Returns true if the collapsed panel is shown by expanding it " +
+                     "again, ex. panel.expand(true); and then some more text " +
+                     "t..."},
+            // empty description, text of the length limit and around it
+            {"", true,
+             "",
+             ""},
+            {rep(117), false,
+             rep(117),
+             null},
+            {rep(118), false,
+             rep(118),
+             rep(117) + "..."},
+            {rep(117), true,
+             rep(117),
+             rep(117)},
+            {rep(110) + "<i>bcdefghij</i>", false,
+             rep(110) + "<i>bcdefghij</i>",
+             rep(110) + "bcdefgh..."},
+            {rep(115) + "{@link Ext.Window#show} end", true,
+             rep(115) + "<a href=\"output/Ext.Window.html#Ext.Window-show\" " +
+                     "ext:member=\"show\" " +
+                     "ext:cls=\"Ext.Window\">Ext.Window.show</a> end",
+             rep(115) + "Ex..."}
+    };
+
+    private FileProcessorImpl processor;
+
+    @Before
+    public void setUp() {
+        processor = new FileProcessorImpl();
+        DocClass cls = new DocClass();
+        cls.className = "Ext.Panel";
+        processor.getContext().setCurrentClass(cls);
+    }
+
+    @Test
+    public void buildsLongAndShortDescriptions() {
+        for (Object[] row : DESCRIPTIONS) {
+            String input = (String) row[0];
+            Description description =
+                    processor.inlineLinks(input, (Boolean) row[1]);
+            assertEquals(input, row[2], description.longDescr);
+            assertEquals(input, row[3], description.shortDescr);
+            assertEquals(input, row[3] != null, description.hasShort);
+        }
+    }
+
+    @Test
+    public void keepsNullDescription() {
+        assertNull(processor.inlineLinks(null, true));
+    }
+}
@@ -0,0 +1,98 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocCustomTag;
+import extdoc.jsdoc.tree.TreePackage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LazyTreeTest {
+
+    private TreePackage root;
+
+    private static DocClass createClass(String packageName, String name) {
+        DocClass cls = new DocClass();
+        cls.packageName = packageName;
+        cls.shortClassName = name;
+        cls.className = packageName.length() == 0 ?
+                name : packageName + '.' + name;
+        return cls;
+    }
+
+    @Before
+    public void setUp() {
+        root = new TreePackage();
+        root.addClass(createClass("", "Ext"));
+        DocClass panel = createClass("Ext", "Panel");
+        panel.component = true;
+        root.addClass(panel);
+        DocClass store = createClass("Ext.data", "Store");
+        DocCustomTag icon = new DocCustomTag();
+        icon.title = "brick-icon";
+        icon.value = "icon-\"store\"";
+        store.customTags.add(icon);
+        root.addClass(store);
+        DocClass registry = createClass("Ext.data", "Registry");
+        registry.singleton = true;
+        root.addClass(registry);
+        root.sort();
+    }
+
+    @Test
+    public void writesTopLevelNodesAndAllIconsToRoot() {
+        LazyTree tree = new LazyTree(root, "output", "output/tree");
+        assertEquals("Docs.treeUrl = \"output/tree/\";\n" +
+                "Docs.classData = {\"id\":\"apidocs\"," +
+                "\"iconCls\":\"icon-docs\",\"text\":\"API Documentation\"," +
+                "\"singleClickExpand\":true,\"children\":[" +
+                "{\"id\":\"pkg-Ext\",\"text\":\"Ext\"," +
+                "\"iconCls\":\"icon-pkg\",\"cls\":\"package\"," +
+                "\"singleClickExpand\":true,\"file\":\"Ext.json\"}," +
+                "{\"href\":\"output/Ext.html\",\"text\":\"Ext\"," +
+                "\"id\":\"Ext\",\"isClass\":true,\"iconCls\":\"icon-cls\"," +
+                "\"cls\":\"cls\",\"leaf\":true}]};\n" +
+                // icons of classes in packages not loaded yet
+                "Docs.icons = {\"Ext\":\"icon-cls\"," +
+                "\"Ext.Panel\":\"icon-cmp\"," +
+                "\"Ext.data.Registry\":\"icon-static\"," +
+                "\"Ext.data.Store\":\"icon-\\\"store\\\"\"};\n",
+                tree.getRoot());
+    }
+
+    @Test
+    public void writesChildrenToPackageFiles() {
+        LazyTree tree = new LazyTree(root, "output", "output/tree");
+        assertEquals(2, tree.getPackageCount());
+        assertEquals("[{\"id\":\"pkg-Ext.data\",\"text\":\"data\"," +
+                "\"iconCls\":\"icon-pkg\",\"cls\":\"package\"," +
+                "\"singleClickExpand\":true,\"file\":\"Ext.data.json\"}," +
+                "{\"href\":\"output/Ext.Panel.html\",\"text\":\"Panel\"," +
+                "\"id\":\"Ext.Panel\",\"isClass\":true," +
+                "\"iconCls\":\"icon-cmp\",\"cls\":\"cls\",\"leaf\":true}]",
+                tree.getPackage("Ext.json"));
+        assertEquals("[{\"href\":\"output/Ext.data.Registry.html\"," +
+                "\"text\":\"Registry\",\"id\":\"Ext.data.Registry\"," +
+                "\"isClass\":true,\"iconCls\":\"icon-static\"," +
+                "\"cls\":\"cls\",\"leaf\":true}," +
+                "{\"href\":\"output/Ext.data.Store.html\"," +
+                "\"text\":\"Store\",\"id\":\"Ext.data.Store\"," +
+                "\"isClass\":true,\"iconCls\":\"icon-\\\"store\\\"\"," +
+                "\"cls\":\"cls\",\"leaf\":true}]",
+                tree.getPackage("Ext.data.json"));
+        assertNull(tree.getPackage("Ext.util.json"));
+    }
+
+    @Test
+    public void listsPathsOfAllFiles() {
+        LazyTree tree = new LazyTree(root, "", "");
+        assertEquals(Arrays.asList("tree.js", "Ext.json", "Ext.data.json"),
+                tree.getPaths("tree.js"));
+        assertTrue(tree.getRoot().startsWith("Docs.treeUrl = \"\";\n"));
+        assertTrue(tree.getPackage("Ext.json")
+                .contains("\"href\":\"Ext.Panel.html\""));
+    }
+}
@@ -0,0 +1,201 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ParseCacheTest {
+
+    /**
+     * Counts files read
+     */
+    private static class CountingParser extends SourceParser {
+        int reads = 0;
+
+        @Override
+        byte[] read(File file) throws IOException {
+            reads++;
+            return super.read(file);
+        }
+    }
+
+    /**
+     * Reads attributes as if files were changed long before
+     */
+    private static class LaterCache extends ParseCache {
+        LaterCache(File cacheFile) {
+            super(cacheFile);
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return System.currentTimeMillis() + 2000;
+        }
+    }
+
+    private final CountingParser parser = new CountingParser();
+
+    private File dir;
+
+    private File source;
+
+    private File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+        source = TestFiles.write(new File(dir, "a.js"),
+                "/** first */\nvar a;\n");
+        cacheFile = new File(dir, "parse.cache");
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static String description(ParsedFile parsedFile) {
+        return parsedFile.comments.get(0).comment.getDescription();
+    }
+
+    @Test
+    public void reusesUnchangedFile() throws IOException {
+        ParseCache cache = new ParseCache(cacheFile);
+        ParsedFile first = cache.parse(source, parser);
+        assertEquals(0, cache.getHits());
+        assertNotNull(first.hash);
+        cache.save();
+
+        cache = new ParseCache(cacheFile);
+        assertTrue(cache.load());
+        ParsedFile second = cache.parse(source, parser);
+        assertEquals(1, cache.getHits());
+        assertEquals("first", description(second));
+        assertEquals(first.hash, second.hash);
+    }
+
+    @Test
+    public void skipsReadingFileWithSameAttributes() throws IOException {
+        ParseCache cache = new LaterCache(cacheFile);
+        ParsedFile first = cache.parse(source, parser);
+        assertEquals(first.hash, ModelDigest.digest(parser.read(source)));
+        cache.save();
+
+        parser.reads = 0;
+        cache = new LaterCache(cacheFile);
+        assertTrue(cache.load());
+        ParsedFile second = cache.parse(source, parser);
+        assertEquals(0, parser.reads);
+        assertEquals(1, cache.getHits());
+        assertEquals("first", description(second));
+        assertEquals(first.hash, second.hash);
+        assertEquals(0, second.size);
+    }
+
+    @Test
+    public void readsFileChangedInSecondOfPreviousRun() throws IOException {
+        // attributes of a later change in the same second may be equal
+        ParseCache cache = new ParseCache(null);
+        cache.parse(source, parser);
+        cache.nextRun();
+        parser.reads = 0;
+        cache.parse(source, parser);
+        assertEquals(1, parser.reads);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void hashesFileWithChangedTime() throws IOException {
+        ParseCache cache = new LaterCache(null);
+        cache.parse(source, parser);
+        assertTrue(source.setLastModified(source.lastModified() - 10000));
+        cache.nextRun();
+        parser.reads = 0;
+        ParsedFile parsedFile = cache.parse(source, parser);
+        assertEquals(1, parser.reads);
+        // content is the same
+        assertEquals(1, cache.getHits());
+        assertEquals(source.length(), parsedFile.size);
+
+        cache.nextRun();
+        cache.parse(source, parser);
+        assertEquals(1, parser.reads);
+    }
+
+    @Test
+    public void parsesEditRestoringSizeAndTimeOfOldFile() throws IOException {
+        assumeTrue(Files.getFileStore(source.toPath())
+                .supportsFileAttributeView("unix"));
+        long time = (System.currentTimeMillis() / 1000 - 3600) * 1000;
+        assertTrue(source.setLastModified(time));
+        ParseCache cache = new LaterCache(null);
+        cache.parse(source, parser);
+
+        // status change time is updated
+        TestFiles.write(source, "/** fixed */\nvar a;\n");
+        assertTrue(source.setLastModified(time));
+        cache.nextRun();
+        assertEquals("fixed", description(cache.parse(source, parser)));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void parsesChangedFile() throws IOException {
+        ParseCache cache = new ParseCache(null);
+        cache.parse(source, parser);
+        TestFiles.write(source, "/** second comment */\nvar a;\n");
+        cache.nextRun();
+        assertEquals("second comment",
+                description(cache.parse(source, parser)));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void parsesEditRestoringSizeAndTime() throws IOException {
+        long time = (System.currentTimeMillis() / 1000 - 3600) * 1000;
+        assertTrue(source.setLastModified(time));
+        ParseCache cache = new ParseCache(cacheFile);
+        cache.parse(source, parser);
+        cache.save();
+
+        // same size, time restored as cp -p or rsync -t would do
+        TestFiles.write(source, "/** fixed */\nvar a;\n");
+        assertTrue(source.setLastModified(time));
+        cache = new ParseCache(cacheFile);
+        assertTrue(cache.load());
+        assertEquals("fixed", description(cache.parse(source, parser)));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void keepsOnlyFilesUsedDuringRun() throws IOException {
+        File other = TestFiles.write(new File(dir, "b.js"),
+                "/** other */\nvar b;\n");
+        ParseCache cache = new ParseCache(cacheFile);
+        cache.parse(source, parser);
+        cache.parse(other, parser);
+        cache.nextRun();
+        cache.parse(source, parser);
+        cache.save();
+
+        cache = new ParseCache(cacheFile);
+        assertTrue(cache.load());
+        cache.parse(other, parser);
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void ignoresCorruptedCacheFile() throws IOException {
+        TestFiles.write(cacheFile, "not a cache");
+        ParseCache cache = new ParseCache(cacheFile);
+        assertFalse(cache.load());
+        assertEquals("first", description(cache.parse(source, parser)));
+    }
+}
@@ -0,0 +1,87 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ResourceCopierTest {
+
+    private File dir;
+
+    private File srcDir;
+
+    private File outDir;
+
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+        srcDir = new File(dir, "resources");
+        TestFiles.write(new File(srcDir, "a.css"), "a {}");
+        TestFiles.write(new File(srcDir, "img/b.png"), new byte[]{1, 2, 3});
+        outDir = new File(dir, "out");
+        manifestFile = new File(outDir, ".manifest");
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private ResourceCopier copy() throws IOException {
+        DocOutput output = DocOutput.create(outDir.getPath(), 0,
+                new BuildStats());
+        OutputManifest manifest = new OutputManifest(manifestFile);
+        manifest.load();
+        ResourceCopier copier = new ResourceCopier(output, manifest, 4,
+                false, new BuildStats());
+        copier.add(srcDir, "resources");
+        copier.copy();
+        manifest.save();
+        output.close();
+        return copier;
+    }
+
+    private File copyOf(String path) {
+        return new File(outDir, "resources/" + path);
+    }
+
+    @Test
+    public void copiesOnlyChangedFiles() throws IOException {
+        ResourceCopier first = copy();
+        assertEquals(2, first.getTotal());
+        assertEquals(2, first.getCopied());
+        assertArrayEquals(new byte[]{1, 2, 3},
+                TestFiles.readBytes(copyOf("img/b.png")));
+
+        assertEquals(0, copy().getCopied());
+
+        TestFiles.write(new File(srcDir, "a.css"), "a { color: red }");
+        ResourceCopier changed = copy();
+        assertEquals(1, changed.getCopied());
+        assertEquals("a { color: red }", TestFiles.read(copyOf("a.css")));
+    }
+
+    @Test
+    public void replacesChangedOrMissingCopy() throws IOException {
+        copy();
+        TestFiles.write(copyOf("a.css"), "edited");
+        assertTrue(copyOf("img/b.png").delete());
+        assertEquals(2, copy().getCopied());
+        assertEquals("a {}", TestFiles.read(copyOf("a.css")));
+        assertTrue(copyOf("img/b.png").isFile());
+    }
+
+    @Test
+    public void copiesAgainWithoutManifest() throws IOException {
+        copy();
+        assertTrue(manifestFile.delete());
+        assertEquals(2, copy().getCopied());
+    }
+}
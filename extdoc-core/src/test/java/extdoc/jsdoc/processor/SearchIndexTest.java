@@ -0,0 +1,143 @@
+package extdoc.jsdoc.processor;
+
+import extdoc.jsdoc.docs.Description;
+import extdoc.jsdoc.docs.DocClass;
+import extdoc.jsdoc.docs.DocMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static DocClass createClass(String name, String description,
+                                        String... methods) {
+        DocClass cls = new DocClass();
+        cls.className = "Ext." + name;
+        cls.shortClassName = name;
+        cls.description = description;
+        for (String methodName : methods) {
+            DocMethod method = new DocMethod();
+            method.className = cls.className;
+            method.name = methodName;
+            method.description = new Description();
+            method.description.hasShort = true;
+            method.description.shortDescr = methodName + " it";
+            cls.methods.add(method);
+        }
+        return cls;
+    }
+
+    private static final String PANEL =
+            "{\"cls\":\"Ext.Panel\",\"member\":\"Panel\"," +
+            "\"type\":\"cls\",\"doc\":\"Panel.\"}";
+
+    private static final String SHOW =
+            "{\"cls\":\"Ext.Panel\",\"member\":\"show\"," +
+            "\"type\":\"method\",\"doc\":\"show it\"}";
+
+    private static final String SHOW_ALL =
+            "{\"cls\":\"Ext.Panel\",\"member\":\"showAll\"," +
+            "\"type\":\"method\",\"doc\":\"showAll it\"}";
+
+    private static int count(String shard) {
+        return shard.split("\\{\"cls\":").length - 1;
+    }
+
+    @Test
+    public void writesItemsToShardsOfTheirPairs() {
+        SearchIndex index = new SearchIndex(100);
+        index.addClass(createClass("Panel", "Panel.", "show", "showAll"));
+        assertEquals(3, index.getSize());
+
+        // query loads one shard with all it displays
+        assertEquals("{\"data\":[" + PANEL + "]}", index.getFile("pa.json"));
+        assertEquals("{\"data\":[" + SHOW + "," + SHOW_ALL + "]}",
+                index.getFile("sh.json"));
+        assertEquals("{\"data\":[" + SHOW_ALL + "]}",
+                index.getFile("ll.json"));
+        assertNull(index.getFile("xy.json"));
+        assertNull(index.getFile("pa.js"));
+    }
+
+    @Test
+    public void writesItemsToShardOfFirstCharacter() {
+        SearchIndex index = new SearchIndex(100);
+        index.addClass(createClass("Panel", "Panel.", "show", "showAll"));
+        assertEquals("{\"data\":[" + PANEL + "]}", index.getFile("p.json"));
+        assertEquals("{\"data\":[" + SHOW + "," + SHOW_ALL + "]}",
+                index.getFile("s.json"));
+        // only names starting with the character
+        assertNull(index.getFile("a.json"));
+    }
+
+    @Test
+    public void sharesShardOfCommonPair() {
+        SearchIndex index = new SearchIndex(100);
+        index.addClass(createClass("Window", null,
+                "onShow", "onHide", "toto"));
+        assertEquals(2, count(index.getFile("on.json")));
+        assertEquals(2, count(index.getFile("ow.json")));
+        // pair repeated in one name is listed once
+        assertEquals(1, count(index.getFile("to.json")));
+    }
+
+    @Test
+    public void escapesJson() {
+        StringBuilder sb = new StringBuilder();
+        SearchIndex.appendJson(sb, "a\"b\\c\nd\te\u0001f\u2028g\u2029h");
+        assertEquals("\"a\\\"b\\\\c\\nd\\te\\u0001f\\u2028g\\u2029h\"",
+                sb.toString());
+        sb.setLength(0);
+        SearchIndex.appendJson(sb, null);
+        assertEquals("\"\"", sb.toString());
+    }
+
+    @Test
+    public void mapsOtherCharactersToUnderscore() {
+        SearchIndex index = new SearchIndex(100);
+        index.addClass(createClass("A", null, "$get"));
+        assertEquals(1, count(index.getFile("_g.json")));
+        assertEquals(1, count(index.getFile("_.json")));
+    }
+
+    @Test
+    public void removesStaleShards() throws IOException {
+        File searchDir = new File(dir, "search");
+        File stale = TestFiles.write(new File(searchDir, "zz.json"), "{}");
+        File staleCopy = TestFiles.write(
+                new File(searchDir, "zz.json.gz"), "{}");
+        File other = TestFiles.write(new File(searchDir, "readme.json"), "{}");
+        SearchIndex index = new SearchIndex(100);
+        index.addClass(createClass("Panel", null));
+
+        DocOutput output = DocOutput.create(dir.getPath(), 0,
+                new BuildStats());
+        index.save(output, "search");
+        output.close();
+
+        assertFalse(stale.exists());
+        assertFalse(staleCopy.exists());
+        assertTrue(other.exists());
+        assertEquals(index.getFile("an.json"),
+                TestFiles.read(new File(searchDir, "an.json")));
+        assertEquals(index.getFile("p.json"),
+                TestFiles.read(new File(searchDir, "p.json")));
+    }
+}
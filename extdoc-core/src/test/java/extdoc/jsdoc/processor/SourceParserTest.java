@@ -0,0 +1,104 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expected positions and code words are the ones the per-character state
+ * machine produced, except for the unterminated trailing comment
+ */
+public class SourceParserTest {
+
+    private final SourceParser parser = new SourceParser();
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private List<ParsedComment> parse(String content) throws IOException {
+        ParsedFile parsedFile = parser.parse(new File("a.js"),
+                content.getBytes("UTF8"));
+        assertEquals(content.getBytes("UTF8").length, parsedFile.size);
+        return parsedFile.comments;
+    }
+
+    private static void assertComment(ParsedComment comment, long position,
+                                      String description, String extraLine,
+                                      String extra2Line) {
+        assertEquals(position, comment.position);
+        assertEquals(description, comment.comment.getDescription());
+        assertEquals(extraLine, comment.extraLine);
+        assertEquals(extra2Line, comment.extra2Line);
+    }
+
+    @Test
+    public void findsCommentsAndFollowingCode() throws IOException {
+        List<ParsedComment> comments = parse("var x;\n" +
+                "/** first */\nfoo.bar = function(){};\n" +
+                "/** second */ baz qux");
+        assertEquals(2, comments.size());
+        // "/" counted from 1, state machine took 2 from position of last "*"
+        assertComment(comments.get(0), 8, "first", "foo.bar", "function");
+        assertComment(comments.get(1), 45, "second", "baz", "qux");
+    }
+
+    @Test
+    public void countsPositionInCharacters() throws IOException {
+        List<ParsedComment> comments = parse(
+                "var \u00e9 = '\u00e9';\n/** c */ _private $dollar");
+        assertEquals(1, comments.size());
+        assertComment(comments.get(0), 14, "c", "_private", "dollar");
+    }
+
+    @Test
+    public void readsFileWithWindowsLineEnds() throws IOException {
+        File file = TestFiles.write(new File(dir, "Panel.js"),
+                "/**\r\n * Panel.\r\n * @class Ext.Panel\r\n */\r\n" +
+                "Ext.Panel = Ext.extend(Ext.Container, {\r\n");
+        ParsedFile parsedFile = parser.parse(file);
+        assertEquals(file.length(), parsedFile.size);
+        assertEquals(1, parsedFile.comments.size());
+        assertComment(parsedFile.comments.get(0), 1, "Panel.",
+                "Ext.Panel", "Ext.extend");
+    }
+
+    @Test
+    public void doesNotReuseStartOfCommentAsEnd() throws IOException {
+        List<ParsedComment> comments = parse("/**/ code */ x");
+        assertEquals(1, comments.size());
+        assertComment(comments.get(0), 1, "/ code", "x", "");
+    }
+
+    @Test
+    public void ignoresUnterminatedTrailingComment() throws IOException {
+        // state machine added the previous comment twice
+        List<ParsedComment> comments =
+                parse("/** first */ a b\n/** unterminated");
+        assertEquals(1, comments.size());
+        assertComment(comments.get(0), 1, "first", "a", "b");
+    }
+
+    @Test
+    public void handlesFilesWithoutCode() throws IOException {
+        assertEquals(0, parse("no comments").size());
+        assertEquals(0, parse("").size());
+        List<ParsedComment> comments = parse("/** one */");
+        assertEquals(1, comments.size());
+        assertComment(comments.get(0), 1, "one", "", "");
+    }
+}
@@ -0,0 +1,115 @@
+package extdoc.jsdoc.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class TemplatesCacheTest {
+
+    private static final String MAIN =
+            "<xsl:stylesheet version=\"1.0\" " +
+            "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">\n" +
+            "<xsl:import href=\"part.xsl\"/>\n" +
+            "<xsl:output method=\"text\"/>\n" +
+            "<xsl:template match=\"/\">main <xsl:call-template " +
+            "name=\"part\"/></xsl:template>\n" +
+            "</xsl:stylesheet>\n";
+
+    private static final String PART =
+            "<xsl:stylesheet version=\"1.0\" " +
+            "xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">\n" +
+            "<xsl:template name=\"part\">first</xsl:template>\n" +
+            "</xsl:stylesheet>\n";
+
+    private final TransformerFactory factory =
+            TransformerFactory.newInstance();
+
+    private File dir;
+
+    private File main;
+
+    private File part;
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = TestFiles.createDir();
+        main = TestFiles.write(new File(dir, "main.xsl"), MAIN);
+        part = TestFiles.write(new File(dir, "part.xsl"), PART);
+        cacheDir = new File(dir, "cache");
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(dir);
+    }
+
+    private static String transform(Templates templates)
+            throws TransformerException {
+        StringWriter out = new StringWriter();
+        templates.newTransformer().transform(
+                new StreamSource(new StringReader("<a/>")),
+                new StreamResult(out));
+        return out.toString();
+    }
+
+    private int cacheFiles() {
+        String[] names = cacheDir.list();
+        return names != null ? names.length : 0;
+    }
+
+    @Test
+    public void keepsCompiledStylesheetInMemory() throws Exception {
+        TemplatesCache cache = new TemplatesCache(null);
+        Templates first = cache.get(factory, main);
+        assertSame(first, cache.get(factory, main));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cacheFiles());
+    }
+
+    @Test
+    public void readsStylesheetCompiledByPreviousRun() throws Exception {
+        TemplatesCache cache = new TemplatesCache(cacheDir);
+        assertEquals("main first", transform(cache.get(factory, main)));
+        assertEquals(0, cache.getHits());
+
+        cache = new TemplatesCache(cacheDir);
+        assertEquals("main first", transform(cache.get(factory, main)));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void compilesAgainWhenImportedStylesheetChanges()
+            throws Exception {
+        String digest = TemplatesCache.digest(main);
+        TemplatesCache cache = new TemplatesCache(cacheDir);
+        cache.get(factory, main);
+        int files = cacheFiles();
+
+        TestFiles.write(part, PART.replace("first", "second"));
+        assertFalse(digest.equals(TemplatesCache.digest(main)));
+        cache = new TemplatesCache(cacheDir);
+        assertEquals("main second", transform(cache.get(factory, main)));
+        assertEquals(0, cache.getHits());
+        // entry of the previous version is replaced
+        assertEquals(files, cacheFiles());
+
+        // same process, stylesheet changed between runs in watch mode
+        TestFiles.write(part, PART.replace("first", "third"));
+        assertEquals("main third", transform(cache.get(factory, main)));
+        assertEquals(0, cache.getHits());
+    }
+}
@@ -0,0 +1,97 @@
+package extdoc.jsdoc.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+
+/**
+ * Temporary folders and files for tests
+ */
+class TestFiles {
+
+    private static final String ENCODING = "UTF8";
+
+    static File createDir() throws IOException {
+        File dir = File.createTempFile("extdoc", ".test");
+        if (!dir.delete() || !dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        return dir;
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Copies files of folder to another folder, sub folders are not copied
+     */
+    static void copyFiles(File from, File to) throws IOException {
+        File[] files = from.listFiles();
+        if (files == null) {
+            throw new IOException("Can not list " + from);
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                write(new File(to, file.getName()), readBytes(file));
+            }
+        }
+    }
+
+    /**
+     * @return folder of test resource of the class
+     */
+    static File resourceDir(Class<?> cls, String name) throws IOException {
+        try {
+            return new File(cls.getResource(name).toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static File write(File file, String content) throws IOException {
+        write(file, content.getBytes(ENCODING));
+        return file;
+    }
+
+    static File write(File file, byte[] content) throws IOException {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    static byte[] readBytes(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) > 0) {
+                bytes.write(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    static String read(File file) throws IOException {
+        return new String(readBytes(file), ENCODING);
+    }
+}
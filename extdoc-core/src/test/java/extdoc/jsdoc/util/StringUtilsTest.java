@@ -0,0 +1,100 @@
+package extdoc.jsdoc.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expected output was produced by the highlighter that ran comments,
+ * keywords and quotes as separate passes
+ */
+public class StringUtilsTest {
+
+    private static final String[][] HIGHLIGHT = {
+            // keywords at string boundaries and inside words
+            {"var a = 1;",
+             "<b>var</b> a = 1;"},
+            {"return",
+             "<b>return</b>"},
+            {"x=new Foo();",
+             "x=<b>new</b> Foo();"},
+            {"renew newer new",
+             "renew newer <b>new</b>"},
+            {"if(a){return b}else{}",
+             "<b>if</b>(a){<b>return</b> b}<b>else</b>{}"},
+            // escaped quotes close and open quotes
+            {"s = 'it\\'s';",
+             "s = <em>'it\\'</em>s<em>';"},
+            {"s = \"say \\\"hi\\\"\";",
+             "s = <em>\"say \\\"</em>hi\\<em>\"\"</em>;"},
+            // one line comments, /* */ comments are not highlighted
+            {"a = 1; // if 'quoted'\nb = 2;",
+             "a = 1; <i>// <b>if</b> <em>'quoted'</em></i>\nb = 2;"},
+            {"/* block if */ var x;",
+             "/* block <b>if</b> */ <b>var</b> x;"},
+            // regular expressions and division
+            {"x = /ab+c/.test(s);",
+             "x = /ab+c/.test(s);"},
+            // slashes inside quotes start a comment
+            {"url = 'http://host/';",
+             "url = <em>'http:<i>//host/'</em>;</i>"},
+            // HTML escaped characters
+            {"if (a &lt; 10 &amp;&amp; b &gt; 2) {}",
+             "<b>if</b> (a &lt; 10 &amp;&amp; b &gt; 2) {}"},
+            // other cases
+            {"",
+             ""},
+            {"typeof x == \"undefined\"",
+             "<b>typeof</b> x == <em>\"undefined\"</em>"},
+            {"// only comment",
+             "<i>// only <b>comment</b></i>"},
+            {"x = 5 / 2 / 1;",
+             "x = 5 / 2 / 1;"},
+            {"caf\u00e9 if\u00e9 if",
+             "caf\u00e9 if\u00e9 <b>if</b>"},
+            {"this.that",
+             "this.that"},
+            {"a\n// one\n// two",
+             "a\n<i>// one</i>\n<i>// two</i>"},
+            {"for(var i in o){}\n",
+             "<b>for</b>(<b>var</b> i <b>in</b> o){}\n"}
+    };
+
+    private static final String[][] HIGHLIGHT_CODE = {
+            {"<p>Example</p><code>var a = 'b';</code> done",
+             "<p>Example</p><code><b>var</b> a = <em>'b'</em>;</code> done"},
+            {"<code>  if(x){}  </code>",
+             "<code><b>if</b>(x){}  </code>"},
+            // unterminated or unrecognized tags
+            {"<code>unterminated var",
+             "<code>unterminated <b>var</b>"},
+            {"text <code>",
+             "text <code>"},
+            {"<code>a</code><code>return b</code>",
+             "<code>a</code><code><b>return</b> b</code>"},
+            {"no code here",
+             "no code here"},
+            {"<code></code>x",
+             "<code></code>x"},
+            {"<code>x</code>",
+             "<code>x</code>"},
+            {"<code>x</code",
+             "<code>x</code"},
+            {"<code>new</code>new",
+             "<code><b>new</b></code>new"}
+    };
+
+    @Test
+    public void highlightsKeywordsCommentsAndQuotes() {
+        for (String[] row : HIGHLIGHT) {
+            assertEquals(row[0], row[1], StringUtils.highlight(row[0]));
+        }
+    }
+
+    @Test
+    public void highlightsTextInsideCodeTags() {
+        for (String[] row : HIGHLIGHT_CODE) {
+            assertEquals(row[0], row[1], StringUtils.highlightCode(row[0]));
+        }
+    }
+}
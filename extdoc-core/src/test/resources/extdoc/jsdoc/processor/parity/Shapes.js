@@ -0,0 +1,94 @@
+/**
+ * @class Ext.shape.Shape
+ * @extends Ext.util.Observable
+ * Base class of shapes with <b>markup</b>, "quotes", &amp; entities,
+ * non-ASCII text: café, naïve, Ω, and a {@link Ext.shape.Circle circle}.
+ * <pre><code>
+var s = new Ext.shape.Shape({color: 'red'});
+if (s.area() &lt; 10 && s.visible) {}
+</code></pre>
+ * @constructor
+ * Creates new shape.
+ * @param {Object} config Configuration <i>options</i>
+ */
+Ext.shape.Shape = function(config){};
+
+Ext.shape.Shape.prototype = {
+    /**
+     * @cfg {String} color Fill color, ex. "#ff0000" or 'red'.
+     */
+    /**
+     * @cfg {Number/String} width (optional) Width in pixels.
+     * Defaults to <tt>100</tt>.
+     */
+    /**
+     * Whether shape is shown.
+     * @type Boolean
+     * @property visible
+     */
+    visible : true,
+    /**
+     * Calculates area < 1 & > 0.
+     * Longer description of the method, spanning
+     * two lines with <a href="http://example.com/?a=1&b=2">link</a>.
+     * @param {Number} scale Scale factor
+     * @param {Boolean} round (optional) True to round
+     * @return {Number} Area of the shape
+     */
+    area : function(scale, round){},
+    /**
+     * Moves shape.
+     * @param {Number} x
+     * @param {Number} y
+     * @method moveTo
+     */
+    /**
+     * @event change
+     * Fires when shape changes.
+     * @param {Ext.shape.Shape} this
+     * @param {String} name Name of changed property
+     */
+    /**
+     * Creates shape of given type.
+     * @param {String} type
+     * @return {Ext.shape.Shape}
+     * @static
+     * @method create
+     */
+    /**
+     * @private
+     */
+    hidden : function(){}
+};
+
+/**
+ * @class Ext.shape.Circle
+ * @extends Ext.shape.Shape
+ * Round shape.
+ */
+Ext.shape.Circle = Ext.extend(Ext.shape.Shape, {
+    /**
+     * @cfg {Number} radius Radius in pixels.
+     */
+    /**
+     * Calculates area of circle.
+     * @param {Number} scale
+     * @return {Number}
+     */
+    area : function(scale){}
+});
+
+/**
+ * @class Ext.shape.Registry
+ * Registry of shapes.
+ * @singleton
+ */
+Ext.shape.Registry = function(){
+    return {
+        /**
+         * Registers shape.
+         * @param {Ext.shape.Shape} shape
+         */
+        register : function(shape){}
+    };
+}();
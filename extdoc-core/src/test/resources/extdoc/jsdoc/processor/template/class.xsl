@@ -0,0 +1,15 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+    <xsl:import href="footer.xsl"/>
+    <xsl:output method="html"/>
+
+    <xsl:template match="/docClass">
+        <html><body>
+            <h1><xsl:value-of select="className"/></h1>
+            <xsl:for-each select="methods">
+                <p><xsl:value-of select="className"/>.<xsl:value-of select="name"/>: <xsl:value-of select="description/longDescr"/></p>
+            </xsl:for-each>
+            <xsl:call-template name="footer"/>
+        </body></html>
+    </xsl:template>
+</xsl:stylesheet>
@@ -0,0 +1,140 @@
+package extdoc.maven;
+
+import extdoc.jsdoc.processor.BuildResult;
+import extdoc.jsdoc.processor.FileProcessor;
+import extdoc.jsdoc.processor.FileProcessorImpl;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.text.MessageFormat;
+
+/**
+ * Generates documentation in the Maven JVM. Every execution builds with
+ * its own processor, so modules of a parallel build are documented at the
+ * same time.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.PROCESS_SOURCES,
+        threadSafe = true)
+public class ExtDocMojo extends AbstractMojo {
+
+    /**
+     * Project file (ext-doc.xml)
+     */
+    @Parameter(property = "extdoc.project")
+    private File projectFile;
+
+    /**
+     * Source files and folders, in addition to ones of the project file
+     */
+    @Parameter
+    private File[] sources;
+
+    /**
+     * Template file (template.xml)
+     */
+    @Parameter(property = "extdoc.template", required = true)
+    private File template;
+
+    /**
+     * Output folder, or zip archive if name ends with ".zip"
+     */
+    @Parameter(property = "extdoc.output",
+            defaultValue = "${project.build.directory}/extdoc")
+    private File outputDirectory;
+
+    /**
+     * Number of threads parsing files and rendering pages
+     */
+    @Parameter(property = "extdoc.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * Folder to keep parsed source files and compiled templates between
+     * builds
+     */
+    @Parameter(property = "extdoc.cache")
+    private File cacheDirectory;
+
+    /**
+     * Save only pages whose inputs changed since the previous build
+     */
+    @Parameter(property = "extdoc.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    @Parameter(property = "extdoc.domRender", defaultValue = "false")
+    private boolean domRender;
+
+    @Parameter(property = "extdoc.linkResources", defaultValue = "false")
+    private boolean linkResources;
+
+    @Parameter(property = "extdoc.gzip", defaultValue = "false")
+    private boolean gzip;
+
+    /**
+     * File build statistics are saved to in JSON format
+     */
+    @Parameter(property = "extdoc.stats")
+    private File statsFile;
+
+    @Parameter(property = "extdoc.skip", defaultValue = "false")
+    private boolean skip;
+
+    public void execute()
+            throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Documentation is skipped");
+            return;
+        }
+        if (projectFile == null && (sources == null || sources.length == 0)) {
+            throw new MojoFailureException(
+                    "Project file or sources must be set");
+        }
+        FileProcessor processor = new FileProcessorImpl();
+        processor.setLogHandler(new MavenLogHandler(getLog()));
+        if (getLog().isDebugEnabled()) {
+            processor.setVerbose();
+        }
+        processor.setThreads(threads);
+        if (cacheDirectory != null) {
+            processor.setCacheDir(cacheDirectory.getPath());
+        }
+        processor.setIncremental(incremental);
+        processor.setDomRender(domRender);
+        processor.setLinkResources(linkResources);
+        processor.setGzip(gzip);
+        if (statsFile != null) {
+            processor.setStatsFile(statsFile.getPath());
+        }
+
+        String[] extraSrc = null;
+        if (sources != null) {
+            extraSrc = new String[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                extraSrc[i] = sources[i].getAbsolutePath();
+            }
+        }
+        BuildResult result = processor.build(
+                projectFile != null ? projectFile.getAbsolutePath() : null,
+                extraSrc, outputDirectory.getAbsolutePath(),
+                template.getAbsolutePath());
+
+        if (!result.isSuccessful()) {
+            for (Throwable error : result.getErrors()) {
+                getLog().error(String.valueOf(error));
+            }
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Documentation can not be generated, {0} errors",
+                    result.getErrors().size()),
+                    result.getErrors().get(0));
+        }
+        getLog().info(MessageFormat.format(
+                "{0} classes documented, {1} pages written to {2}",
+                result.getClassCount(), result.getPagesWritten(),
+                outputDirectory));
+    }
+}
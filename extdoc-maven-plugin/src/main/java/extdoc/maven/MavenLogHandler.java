@@ -0,0 +1,57 @@
+package extdoc.maven;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Sends messages of the processor to the log of the Maven build: severe
+ * messages are errors, warnings are warnings, info is info and the rest
+ * is debug output.
+ */
+class MavenLogHandler extends Handler {
+
+    private final Log log;
+
+    public MavenLogHandler(Log log) {
+        this.log = log;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        int level = record.getLevel().intValue();
+        String message = record.getMessage();
+        Throwable thrown = record.getThrown();
+        // some logs do not accept null throwable
+        if (level >= Level.SEVERE.intValue()) {
+            if (thrown != null) {
+                log.error(message, thrown);
+            } else {
+                log.error(message);
+            }
+        } else if (level >= Level.WARNING.intValue()) {
+            if (thrown != null) {
+                log.warn(message, thrown);
+            } else {
+                log.warn(message);
+            }
+        } else if (level >= Level.INFO.intValue()) {
+            log.info(message);
+        } else {
+            log.debug(message);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}